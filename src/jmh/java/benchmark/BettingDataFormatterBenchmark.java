@@ -0,0 +1,50 @@
+package benchmark;
+
+import domain.MatchIndex;
+import domain.ProcessingResult;
+import factory.SyntheticDataFactory;
+import formatter.BettingDataFormatter;
+import org.openjdk.jmh.annotations.*;
+import processor.BettingDataProcessor;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BettingDataFormatterBenchmark {
+
+    @Param({"1000", "1000000", "50000000"})
+    private long actionCount;
+
+    private ProcessingResult result;
+
+    @Setup
+    public void setUp() throws IOException {
+        var random = new Random(1);
+        var matches = new MatchIndex(SyntheticDataFactory.createRandomMatches(random, 1000));
+        Path playerData = Files.createTempFile("player_data", ".txt");
+
+        try {
+            SyntheticDataFactory.writePlayerData(playerData, random,
+                    BettingDataProcessorBenchmark.getPlayerCount(actionCount), actionCount, matches.getMatches());
+
+            result = new BettingDataProcessor(ProcessingMode.SUMMARY).processBettingData(playerData, matches);
+        } finally {
+            Files.deleteIfExists(playerData);
+        }
+    }
+
+    @Benchmark
+    public String formatData() {
+        return BettingDataFormatter.formatData(result);
+    }
+}
@@ -0,0 +1,104 @@
+package benchmark;
+
+import domain.MatchIndex;
+import domain.ProcessingResult;
+import factory.SyntheticDataFactory;
+import org.openjdk.jmh.annotations.*;
+import processor.BettingDataProcessor;
+import processor.ColumnarDataFile;
+import processor.ParallelBettingDataProcessor;
+import processor.PipelinedBettingDataProcessor;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks processing a player data file. The larger datasets need a bigger heap,
+ * e.g. -jvmArgsAppend -Xmx16g, and FULL mode keeps every action in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BettingDataProcessorBenchmark {
+
+    @Param({"1000", "1000000", "50000000"})
+    private long actionCount;
+
+    @Param({"100", "1000000"})
+    private int matchCount;
+
+    @Param({"SUMMARY"})
+    private ProcessingMode mode;
+
+    private MatchIndex matches;
+    private Path playerData;
+
+    @Setup
+    public void setUp() throws IOException {
+        var random = new Random(1);
+
+        matches = new MatchIndex(SyntheticDataFactory.createRandomMatches(random, matchCount));
+        playerData = SyntheticDataFactory.writePlayerData(Files.createTempFile("player_data", ".txt"),
+                random, getPlayerCount(actionCount), actionCount, matches.getMatches());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(playerData);
+    }
+
+    @Benchmark
+    public ProcessingResult processSequential() {
+        return new BettingDataProcessor(mode).processBettingData(playerData, matches);
+    }
+
+    @Benchmark
+    public ProcessingResult processParallel() {
+        return new ParallelBettingDataProcessor(mode).processBettingData(playerData, matches);
+    }
+
+    @Benchmark
+    public ProcessingResult processPipelined() {
+        return new PipelinedBettingDataProcessor(mode).processBettingData(playerData, matches);
+    }
+
+    @Benchmark
+    public ProcessingResult processColumnar(ColumnarData data) {
+        return ColumnarDataFile.processBettingData(data.file, mode);
+    }
+
+    static int getPlayerCount(long actionCount) {
+        return (int) Math.max(1, Math.min(actionCount / 20, 2_000_000));
+    }
+
+    /**
+     * Columnar copy of the player data, only converted for the benchmarks that read it
+     */
+    @State(Scope.Benchmark)
+    public static class ColumnarData {
+
+        private Path file;
+
+        @Setup
+        public void setUp(BettingDataProcessorBenchmark benchmark) throws IOException {
+            file = Files.createTempFile("betting_data", ".bin");
+
+            try (var reader = Files.newBufferedReader(benchmark.playerData)) {
+                ColumnarDataFile.convert(SyntheticDataFactory.createMatchData(benchmark.matches.getMatches()),
+                        reader, file);
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws IOException {
+            Files.deleteIfExists(file);
+        }
+    }
+}
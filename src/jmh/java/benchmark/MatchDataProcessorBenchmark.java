@@ -0,0 +1,34 @@
+package benchmark;
+
+import domain.MatchIndex;
+import factory.SyntheticDataFactory;
+import org.openjdk.jmh.annotations.*;
+import processor.MatchDataProcessor;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatchDataProcessorBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    private int matchCount;
+
+    private String matchData;
+
+    @Setup
+    public void setUp() {
+        matchData = SyntheticDataFactory.createMatchData(
+                SyntheticDataFactory.createRandomMatches(new Random(1), matchCount));
+    }
+
+    @Benchmark
+    public MatchIndex processMatchData() {
+        return MatchDataProcessor.processMatchData(matchData);
+    }
+}
@@ -0,0 +1,73 @@
+package factory;
+
+import domain.Match;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Class for creating large synthetic datasets for benchmarks. Player data is written
+ * straight to a file, so datasets can be larger than the heap.
+ */
+public class SyntheticDataFactory extends TestDataFactory {
+
+    public static String createMatchData(List<Match> matches) {
+        var builder = new StringBuilder();
+
+        for (Match match : matches) {
+            builder.append("%s,%s,%s,%s\n".formatted(
+                    match.getId(), match.getReturnRateA(), match.getReturnRateB(), match.getOutcome()));
+        }
+        return builder.toString();
+    }
+
+    public static Path writePlayerData(Path file, Random random, int playerCount, long actionCount,
+                                       List<Match> matches) throws IOException {
+        try (var writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            writePlayerData(writer, random, playerCount, actionCount, matches);
+        }
+        return file;
+    }
+
+    /**
+     * Writes player data lines with random deposits, withdrawals and bets. Some withdrawals and bets
+     * exceed the player's balance. Every player bets on the matches in a row starting from a random
+     * one, so no player bets on the same match twice without keeping track of earlier bets.
+     */
+    public static void writePlayerData(Writer writer, Random random, int playerCount, long actionCount,
+                                       List<Match> matches) throws IOException {
+        var playerIds = new UUID[playerCount];
+        var firstMatches = new int[playerCount];
+        var betCounts = new int[playerCount];
+
+        for (int i = 0; i < playerCount; i++) {
+            playerIds[i] = new UUID(random.nextLong(), random.nextLong());
+            firstMatches[i] = random.nextInt(matches.size());
+        }
+        var out = writer instanceof BufferedWriter ? writer : new BufferedWriter(writer);
+
+        for (long i = 0; i < actionCount; i++) {
+            int player = random.nextInt(playerCount);
+            int action = random.nextInt(10);
+
+            if (action < 3 && betCounts[player] < matches.size()) {
+                Match match = matches.get((firstMatches[player] + betCounts[player]++) % matches.size());
+
+                out.write("%s,BET,%s,%d,%s\n".formatted(playerIds[player], match.getId(),
+                        random.nextInt(1, 800), random.nextBoolean() ? "A" : "B"));
+            } else if (action < 6) {
+                out.write("%s,WITHDRAW,,%d,\n".formatted(playerIds[player], random.nextInt(1, 1500)));
+            } else {
+                out.write("%s,DEPOSIT,,%d,\n".formatted(playerIds[player], random.nextInt(1, 1000)));
+            }
+        }
+        out.flush();
+    }
+}
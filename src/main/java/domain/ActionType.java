@@ -0,0 +1,10 @@
+package domain;
+
+/**
+ * Type of a player action, named as in the player data
+ */
+public enum ActionType {
+    DEPOSIT,
+    WITHDRAW,
+    BET
+}
@@ -0,0 +1,9 @@
+package domain;
+
+/**
+ * Side a player bets on, named as in the player data
+ */
+public enum BetSide {
+    A,
+    B
+}
@@ -13,7 +13,7 @@ public class Match {
     private UUID id;
 
     @NonNull
-    private String outcome;
+    private Outcome outcome;
 
     private double returnRateA;
 
@@ -0,0 +1,119 @@
+package domain;
+
+import lombok.NonNull;
+
+import java.util.*;
+
+/**
+ * Catalog of matches that can be looked up by id in constant time.
+ * Matches keep the order they were added in and get a dense index from 0 to size - 1.
+ * <p>
+ * Alongside the matches the catalog keeps a settlement table indexed the same way, holding the
+ * winning side and its return rate of every match, so a bet can be settled without reading the match.
+ */
+public class MatchIndex {
+
+    public static final int NOT_FOUND = -1;
+
+    // Winning side of a match that ended in a draw
+    private static final byte NO_WINNING_SIDE = -1;
+
+    private final List<Match> matches = new ArrayList<>();
+    private final Map<UUID, Integer> indexById = new HashMap<>();
+
+    // Bet side ordinal that wins, or NO_WINNING_SIDE
+    private byte[] winningSides = new byte[16];
+    // Return rate of the winning side, 0 for draws
+    private double[] winningReturnRates = new double[16];
+
+    public MatchIndex() {
+    }
+
+    public MatchIndex(@NonNull Collection<Match> matches) {
+        matches.forEach(this::add);
+    }
+
+    /**
+     * Adds a match to the catalog. If a match with the same id already exists,
+     * the first one is kept for lookups.
+     */
+    public void add(@NonNull Match match) {
+        int index = matches.size();
+
+        if (index == winningSides.length) {
+            winningSides = Arrays.copyOf(winningSides, index * 2);
+            winningReturnRates = Arrays.copyOf(winningReturnRates, index * 2);
+        }
+        switch (match.getOutcome()) {
+            case A -> {
+                winningSides[index] = (byte) BetSide.A.ordinal();
+                winningReturnRates[index] = match.getReturnRateA();
+            }
+            case B -> {
+                winningSides[index] = (byte) BetSide.B.ordinal();
+                winningReturnRates[index] = match.getReturnRateB();
+            }
+            case DRAW -> winningSides[index] = NO_WINNING_SIDE;
+        }
+        indexById.putIfAbsent(match.getId(), index);
+        matches.add(match);
+    }
+
+    public Match findById(UUID id) {
+        return get(indexOf(id));
+    }
+
+    public int indexOf(UUID id) {
+        int index = findIndex(id);
+
+        if (index == NOT_FOUND) {
+            throw new IllegalArgumentException("Match with id %s not found!".formatted(id));
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the match, or {@link #NOT_FOUND}
+     */
+    public int findIndex(UUID id) {
+        return indexById.getOrDefault(id, NOT_FOUND);
+    }
+
+    public Match get(int index) {
+        return matches.get(index);
+    }
+
+    public boolean isDraw(int index) {
+        Objects.checkIndex(index, matches.size());
+
+        return winningSides[index] == NO_WINNING_SIDE;
+    }
+
+    /**
+     * Returns whether a bet on the given side of the match wins, which is never the case for a draw
+     * or a null side
+     */
+    public boolean isWonBy(int index, BetSide betSide) {
+        Objects.checkIndex(index, matches.size());
+
+        return betSide != null && winningSides[index] == betSide.ordinal();
+    }
+
+    /**
+     * Returns the coins won by a winning bet on the match, which is the coin amount times the
+     * return rate of the winning side rounded down
+     */
+    public int calculateWinnings(int index, int coinAmount) {
+        Objects.checkIndex(index, matches.size());
+
+        return (int) Math.floor(coinAmount * winningReturnRates[index]);
+    }
+
+    public int size() {
+        return matches.size();
+    }
+
+    public List<Match> getMatches() {
+        return Collections.unmodifiableList(matches);
+    }
+}
@@ -0,0 +1,10 @@
+package domain;
+
+/**
+ * Outcome of a match, named as in the match data
+ */
+public enum Outcome {
+    A,
+    B,
+    DRAW
+}
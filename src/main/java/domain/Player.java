@@ -4,10 +4,7 @@ import lombok.*;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
-import java.util.function.Predicate;
+import java.util.*;
 
 @Data
 @RequiredArgsConstructor
@@ -22,24 +19,67 @@ public class Player {
 
     private List<PlayerAction> playerActions = new ArrayList<>();
 
-    public boolean hasBetOnMatch(UUID matchId) {
-        return getPlayerActions().stream()
-                .anyMatch(a -> matchId.equals(a.getMatchId()));
+    // When false, added actions aren't kept in playerActions, which may instead be set to
+    // a read-only view, and only the aggregates and the earliest illegal action are tracked
+    private boolean retainActions = true;
+
+    private PlayerAction firstIllegalAction;
+
+    // Running totals over legal bets, kept in sync by addAction or set directly when
+    // the player's actions aren't retained
+
+    private int legalBetCount;
+
+    private int betsWonCount;
+
+    private long betBalanceChange;
+
+    public void addAction(PlayerAction action) {
+        if (retainActions) {
+            playerActions.add(action);
+        }
+        if (!action.isLegalAction() && (firstIllegalAction == null
+                || action.getQueueNr() < firstIllegalAction.getQueueNr())) {
+            firstIllegalAction = action;
+        }
+
+        if (action.isLegalAction() && action.getActionType() == ActionType.BET) {
+            legalBetCount++;
+            betsWonCount += action.isBetWon() ? 1 : 0;
+            betBalanceChange += action.getPlayerBalanceChange();
+        }
+    }
+
+    public Optional<PlayerAction> getEarliestIllegalAction() {
+        if (!retainActions) {
+            return Optional.ofNullable(firstIllegalAction);
+        }
+        return playerActions.stream()
+                .filter(a -> !a.isLegalAction())
+                .min(Comparator.comparing(PlayerAction::getQueueNr));
     }
 
     public BigDecimal getWinRate() {
-        int betsPlaced = getActionCount(a -> a.getActionName().equals("BET"));
-        int gamesWon = getActionCount(a -> a.isBetWon());
+        return BigDecimal.valueOf(getWinRateInHundredths(), 2);
+    }
 
-        return BigDecimal
-                .valueOf(betsPlaced > 0 ? (double) gamesWon / betsPlaced : 0)
-                .setScale(2, RoundingMode.HALF_UP);
+    /**
+     * Returns the share of legal bets won in hundredths, rounded half up
+     */
+    public int getWinRateInHundredths() {
+        return calculateWinRateInHundredths(betsWonCount, legalBetCount);
     }
 
-    private int getActionCount(Predicate<PlayerAction> filter) {
-        return playerActions.stream()
-                .filter(filter.and(a -> a.isLegalAction()))
-                .toList()
-                .size();
+    /**
+     * Calculates round(100 * betsWon / betsPlaced) with halves rounded up, in integer arithmetic.
+     * This matches rounding the double ratio to 2 decimals with {@link RoundingMode#HALF_UP}:
+     * a ratio that isn't exactly halfway is at least 1 / (200 * betsPlaced) away from it, which is
+     * far more than the error of the double.
+     */
+    public static int calculateWinRateInHundredths(int betsWon, int betsPlaced) {
+        if (betsPlaced == 0) {
+            return 0;
+        }
+        return (int) ((200L * betsWon + betsPlaced) / (2L * betsPlaced));
     }
 }
@@ -10,7 +10,7 @@ public class PlayerAction {
 
     private int queueNr;
 
-    private String actionName;
+    private ActionType actionType;
 
     private int coinAmount;
 
@@ -22,13 +22,13 @@ public class PlayerAction {
 
     private UUID matchId;
 
-    private String betSide;
+    private BetSide betSide;
 
     private boolean betWon;
 
-    public PlayerAction(int queueNr, String actionName, int coinAmount) {
+    public PlayerAction(int queueNr, ActionType actionType, int coinAmount) {
         this.queueNr = queueNr;
-        this.actionName = actionName;
+        this.actionType = actionType;
         this.coinAmount = coinAmount;
     }
 }
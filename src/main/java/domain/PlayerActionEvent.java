@@ -0,0 +1,39 @@
+package domain;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * A single player action as it happens, with the same values as a line of player data
+ */
+@Value
+public class PlayerActionEvent {
+
+    @NonNull
+    UUID playerId;
+
+    @NonNull
+    ActionType actionType;
+
+    int coinAmount;
+
+    // Following values are only used for bets
+
+    UUID matchId;
+
+    BetSide betSide;
+
+    public static PlayerActionEvent deposit(UUID playerId, int coinAmount) {
+        return new PlayerActionEvent(playerId, ActionType.DEPOSIT, coinAmount, null, null);
+    }
+
+    public static PlayerActionEvent withdraw(UUID playerId, int coinAmount) {
+        return new PlayerActionEvent(playerId, ActionType.WITHDRAW, coinAmount, null, null);
+    }
+
+    public static PlayerActionEvent bet(UUID playerId, UUID matchId, int coinAmount, BetSide betSide) {
+        return new PlayerActionEvent(playerId, ActionType.BET, coinAmount, matchId, betSide);
+    }
+}
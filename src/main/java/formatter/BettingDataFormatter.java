@@ -3,72 +3,148 @@ package formatter;
 import domain.Player;
 import domain.PlayerAction;
 import domain.ProcessingResult;
+import metrics.FormatEvent;
+import metrics.Metrics;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Locale;
-import java.util.function.Predicate;
+import java.io.IOException;
+import java.util.*;
 
 public class BettingDataFormatter {
 
+    // Win rates are written with German number formatting
+    private static final char DECIMAL_SEPARATOR = ',';
+
+    private static final Comparator<Player> BY_ID = Comparator.comparing(Player::getId);
+
     public static String formatData(ProcessingResult data) {
-        List<Player> players = data.getPlayers();
         var builder = new StringBuilder();
 
-        formatLegitimatePlayers(builder, players);
-        formatIllegitimatePlayers(builder, players);
-
-        builder.append(data.getHostBalanceChange());
+        formatData(data, builder);
 
         return builder.toString();
     }
 
-    private static void formatLegitimatePlayers(StringBuilder builder, List<Player> players) {
-        List<Player> legitimatePlayers = filterAndSortPlayers(players, p -> p.isLegitimate());
+    /**
+     * Writes the formatted data to the given output through a buffer, without building
+     * the whole text in memory first. The output is not flushed or closed.
+     */
+    public static void formatData(ProcessingResult data, Appendable out) {
+        formatData(data, out, ReportFilter.ALL);
+    }
 
-        if (legitimatePlayers.isEmpty()) {
-            builder.append("\n");
+    /**
+     * Writes a report of the players selected by the filter. Players are split into
+     * groups in a single pass, and when only the first players of a group are written,
+     * they are selected without sorting the whole group.
+     */
+    public static void formatData(ProcessingResult data, Appendable out, ReportFilter filter) {
+        long start = System.nanoTime();
+        var event = new FormatEvent();
+
+        event.begin();
+
+        List<Player> legitimatePlayers = new ArrayList<>();
+        List<Player> illegitimatePlayers = new ArrayList<>();
+
+        for (Player player : data.getPlayers()) {
+            if (filter.includes(player.getId())) {
+                (player.isLegitimate() ? legitimatePlayers : illegitimatePlayers).add(player);
+            }
         }
+        var buffer = new TextBuffer(out);
 
-        var df = new DecimalFormat("0.00", new DecimalFormatSymbols(Locale.GERMANY));
+        try {
+            formatLegitimatePlayers(buffer, selectFirstPlayers(legitimatePlayers, filter.getLimit()));
+            formatIllegitimatePlayers(buffer, selectFirstPlayers(illegitimatePlayers, filter.getLimit()));
 
-        for (Player player : legitimatePlayers) {
-            builder.append("%s %d %s\n"
-                    .formatted(player.getId(), player.getBalance(), df.format(player.getWinRate())));
+            buffer.append(data.getHostBalanceChange());
+            buffer.flush();
+
+            Metrics.FORMATTING.recordSince(start);
+
+            if (event.shouldCommit()) {
+                event.playerCount = legitimatePlayers.size() + illegitimatePlayers.size();
+                event.commit();
+            }
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write formatted data!", e);
         }
-        builder.append("\n");
     }
 
-    private static void formatIllegitimatePlayers(StringBuilder builder, List<Player> players) {
-        List<Player> illegitimatePlayers = filterAndSortPlayers(players, p -> !p.isLegitimate());
+    private static void formatLegitimatePlayers(TextBuffer buffer, List<Player> legitimatePlayers)
+            throws IOException {
+        if (legitimatePlayers.isEmpty()) {
+            buffer.append('\n');
+        }
 
+        for (Player player : legitimatePlayers) {
+            buffer.append(player.getId()).append(' ')
+                    .append(player.getBalance()).append(' ')
+                    .appendHundredths(player.getWinRateInHundredths(), DECIMAL_SEPARATOR).append('\n');
+        }
+        buffer.append('\n');
+    }
+
+    private static void formatIllegitimatePlayers(TextBuffer buffer, List<Player> illegitimatePlayers)
+            throws IOException {
         if (illegitimatePlayers.isEmpty()) {
-            builder.append("\n");
+            buffer.append('\n');
         }
 
         for (Player player : illegitimatePlayers) {
             PlayerAction action = getEarliestIllegalAction(player);
 
-            builder.append("%s %s %s %d %s\n"
-                    .formatted(player.getId(), action.getActionName(), action.getMatchId(),
-                            action.getCoinAmount(), action.getBetSide()));
+            buffer.append(player.getId()).append(' ')
+                    .append(action.getActionType()).append(' ')
+                    .append(action.getMatchId()).append(' ')
+                    .append(action.getCoinAmount()).append(' ')
+                    .append(action.getBetSide()).append('\n');
         }
-        builder.append("\n");
+        buffer.append('\n');
     }
 
-    private static List<Player> filterAndSortPlayers(List<Player> players, Predicate<Player> filter) {
-        return players.stream()
-                .filter(filter)
-                .sorted(Comparator.comparing(Player::getId))
-                .toList();
+    /**
+     * Returns the players with the smallest ids in order of id, at most limit players
+     */
+    private static List<Player> selectFirstPlayers(List<Player> players, int limit) {
+        if (limit >= players.size()) {
+            return sortPlayers(players);
+        }
+        // Keep the smallest ids seen so far in a heap with the largest of them on top
+        var selected = new PriorityQueue<>(limit + 1, BY_ID.reversed());
+
+        for (Player player : players) {
+            if (selected.size() < limit) {
+                selected.add(player);
+            } else if (limit > 0 && BY_ID.compare(player, selected.peek()) < 0) {
+                selected.poll();
+                selected.add(player);
+            }
+        }
+        return sortPlayers(selected);
+    }
+
+    private static List<Player> sortPlayers(Collection<Player> players) {
+        Player[] sorted = players.toArray(new Player[0]);
+
+        if (!isSorted(sorted)) {
+            Arrays.parallelSort(sorted, BY_ID);
+        }
+        return Arrays.asList(sorted);
+    }
+
+    private static boolean isSorted(Player[] players) {
+        for (int i = 1; i < players.length; i++) {
+            if (BY_ID.compare(players[i - 1], players[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static PlayerAction getEarliestIllegalAction(Player player) {
-        return player.getPlayerActions().stream()
-                .filter(a -> !a.isLegalAction())
-                .min(Comparator.comparing(PlayerAction::getQueueNr))
+        return player.getEarliestIllegalAction()
                 .orElseThrow(() -> new RuntimeException(
                         "Illegitimate player %s has no illegal actions!".formatted(player.getId())));
     }
@@ -0,0 +1,43 @@
+package formatter;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.UUID;
+
+/**
+ * Selects which players are written to a report. The host balance change is always
+ * written for all players.
+ */
+@Value
+public class ReportFilter {
+
+    public static final ReportFilter ALL = ReportFilter.builder().build();
+
+    // Smallest player id to include, or null for no lower bound
+    UUID fromId;
+
+    // Player id to stop before, or null for no upper bound
+    UUID toId;
+
+    // Maximum number of players written in each group, in order of id
+    int limit;
+
+    /**
+     * @param limit maximum number of players in each group, or null for no limit
+     */
+    @Builder
+    private ReportFilter(UUID fromId, UUID toId, Integer limit) {
+        if (limit != null && limit < 0) {
+            throw new IllegalArgumentException("Report limit %d is negative!".formatted(limit));
+        }
+        this.fromId = fromId;
+        this.toId = toId;
+        this.limit = limit == null ? Integer.MAX_VALUE : limit;
+    }
+
+    public boolean includes(UUID id) {
+        return (fromId == null || id.compareTo(fromId) >= 0)
+                && (toId == null || id.compareTo(toId) < 0);
+    }
+}
@@ -0,0 +1,152 @@
+package formatter;
+
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.UUID;
+
+/**
+ * Buffers text for an {@link Appendable} and formats numbers and UUIDs straight into
+ * the buffer, without creating intermediate Strings
+ */
+class TextBuffer {
+
+    private static final int CAPACITY = 8192;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final char[] MIN_LONG = Long.toString(Long.MIN_VALUE).toCharArray();
+
+    private final Appendable out;
+    private final char[] buffer = new char[CAPACITY];
+    private int size;
+
+    TextBuffer(Appendable out) {
+        this.out = out;
+    }
+
+    TextBuffer append(char c) throws IOException {
+        ensureCapacity(1);
+        buffer[size++] = c;
+
+        return this;
+    }
+
+    /**
+     * Appends the text like {@link StringBuilder#append(String)}, so null is written as "null"
+     */
+    TextBuffer append(String text) throws IOException {
+        if (text == null) {
+            return append("null");
+        }
+        if (text.length() > CAPACITY) {
+            flush();
+            out.append(text);
+
+            return this;
+        }
+        ensureCapacity(text.length());
+        text.getChars(0, text.length(), buffer, size);
+        size += text.length();
+
+        return this;
+    }
+
+    /**
+     * Appends the name of the constant, so null is written as "null"
+     */
+    TextBuffer append(Enum<?> value) throws IOException {
+        return append(value == null ? null : value.name());
+    }
+
+    /**
+     * Appends the UUID in the same format as {@link UUID#toString()}, or "null"
+     */
+    TextBuffer append(UUID id) throws IOException {
+        if (id == null) {
+            return append("null");
+        }
+        ensureCapacity(36);
+
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+
+        appendHex(msb >>> 32, 8);
+        buffer[size++] = '-';
+        appendHex(msb >>> 16, 4);
+        buffer[size++] = '-';
+        appendHex(msb, 4);
+        buffer[size++] = '-';
+        appendHex(lsb >>> 48, 4);
+        buffer[size++] = '-';
+        appendHex(lsb, 12);
+
+        return this;
+    }
+
+    TextBuffer append(long value) throws IOException {
+        ensureCapacity(MIN_LONG.length);
+
+        if (value == Long.MIN_VALUE) {
+            System.arraycopy(MIN_LONG, 0, buffer, size, MIN_LONG.length);
+            size += MIN_LONG.length;
+
+            return this;
+        }
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+
+        return this;
+    }
+
+    /**
+     * Appends a non-negative number of hundredths with two decimals, e.g. 14 as "0,14"
+     */
+    TextBuffer appendHundredths(int hundredths, char decimalSeparator) throws IOException {
+        append(hundredths / 100);
+        ensureCapacity(3);
+
+        buffer[size++] = decimalSeparator;
+        buffer[size++] = (char) ('0' + hundredths % 100 / 10);
+        buffer[size++] = (char) ('0' + hundredths % 10);
+
+        return this;
+    }
+
+    void flush() throws IOException {
+        if (size == 0) {
+            return;
+        }
+        if (out instanceof Writer writer) {
+            writer.write(buffer, 0, size);
+        } else {
+            out.append(CharBuffer.wrap(buffer, 0, size));
+        }
+        size = 0;
+    }
+
+    private void appendHex(long value, int digits) {
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = HEX_DIGITS[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        size += digits;
+    }
+
+    private void ensureCapacity(int length) throws IOException {
+        if (size + length > CAPACITY) {
+            flush();
+        }
+    }
+}
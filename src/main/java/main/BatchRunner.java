@@ -0,0 +1,226 @@
+package main;
+
+import domain.MatchIndex;
+import domain.ProcessingResult;
+import formatter.BettingDataFormatter;
+import lombok.Value;
+import processor.BettingDataProcessor;
+import processor.MatchDataProcessor;
+import processor.ProcessingMode;
+import util.FileUtil;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Processes many match and player data file pairs, writing a result file for every pair.
+ * Pairs run on virtual threads when the JVM supports them and on a fixed thread pool otherwise,
+ * with at most the configured number of pairs processed at once. A failing pair doesn't stop
+ * the others and is reported in the summary.
+ */
+public class BatchRunner {
+
+    static final String MATCH_DATA_FILE = "match_data.txt";
+    static final String PLAYER_DATA_FILE = "player_data.txt";
+    static final String RESULT_FILE_SUFFIX = "_result.txt";
+
+    private final Path outputDir;
+    private final int concurrency;
+
+    public BatchRunner(Path outputDir, int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1, but was %d!".formatted(concurrency));
+        }
+        this.outputDir = outputDir;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Finds the input pairs of a directory or manifest file. Every subdirectory of a directory that
+     * contains both data files is a pair named after the subdirectory. Every non-empty line of a
+     * manifest is a pair in the form name,matchDataPath,playerDataPath, with paths relative to the manifest.
+     */
+    public static List<InputPair> findInputPairs(Path input) {
+        try {
+            return Files.isDirectory(input) ? findDirectoryPairs(input) : readManifest(input);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read input pairs from %s!".formatted(input), e);
+        }
+    }
+
+    public BatchSummary run(List<InputPair> pairs) {
+        var permits = new Semaphore(concurrency);
+        ExecutorService executor = createExecutor(concurrency);
+        List<Future<PairResult>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+
+        try {
+            for (InputPair pair : pairs) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return process(pair);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            List<PairResult> results = new ArrayList<>();
+
+            for (Future<PairResult> future : futures) {
+                results.add(future.get());
+            }
+            return new BatchSummary(results, System.nanoTime() - start);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Batch run was interrupted!", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PairResult process(InputPair pair) {
+        long start = System.nanoTime();
+
+        try {
+            MatchIndex matches = MatchDataProcessor.processMatchData(FileUtil.readFile(pair.getMatchData()));
+            ProcessingResult result = new BettingDataProcessor(ProcessingMode.SUMMARY)
+                    .processBettingData(pair.getPlayerData(), matches);
+
+            FileUtil.writeToFile(outputDir.resolve(pair.getName() + RESULT_FILE_SUFFIX),
+                    writer -> BettingDataFormatter.formatData(result, writer));
+
+            return new PairResult(pair.getName(), System.nanoTime() - start, result.getPlayers().size(), null);
+
+        } catch (RuntimeException e) {
+            return new PairResult(pair.getName(), System.nanoTime() - start, 0, e.toString());
+        }
+    }
+
+    private static List<InputPair> findDirectoryPairs(Path dir) throws IOException {
+        try (Stream<Path> subDirs = Files.list(dir)) {
+            return subDirs
+                    .filter(subDir -> Files.isRegularFile(subDir.resolve(MATCH_DATA_FILE))
+                            && Files.isRegularFile(subDir.resolve(PLAYER_DATA_FILE)))
+                    .sorted()
+                    .map(subDir -> new InputPair(subDir.getFileName().toString(),
+                            subDir.resolve(MATCH_DATA_FILE), subDir.resolve(PLAYER_DATA_FILE)))
+                    .toList();
+        }
+    }
+
+    private static List<InputPair> readManifest(Path manifest) throws IOException {
+        Path dir = manifest.toAbsolutePath().getParent();
+        List<InputPair> pairs = new ArrayList<>();
+
+        for (String line : Files.readAllLines(manifest)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String[] values = line.split(",");
+
+            if (values.length != 3) {
+                throw new IllegalArgumentException("%s is not a valid manifest line!".formatted(line));
+            }
+            pairs.add(new InputPair(values[0].trim(), dir.resolve(values[1].trim()), dir.resolve(values[2].trim())));
+        }
+        return pairs;
+    }
+
+    /**
+     * Creates an executor with a virtual thread per task if the JVM has them. The build
+     * targets Java 17, so they are looked up reflectively.
+     */
+    private static ExecutorService createExecutor(int concurrency) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+
+            return (ExecutorService) factory.invoke(null);
+
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(concurrency);
+        }
+    }
+
+    @Value
+    public static class InputPair {
+
+        String name;
+
+        Path matchData;
+
+        Path playerData;
+    }
+
+    @Value
+    public static class PairResult {
+
+        String name;
+
+        long durationNanos;
+
+        int playerCount;
+
+        // Description of the failure, or null if the pair was processed
+        String error;
+
+        public boolean isFailed() {
+            return error != null;
+        }
+    }
+
+    @Value
+    public static class BatchSummary {
+
+        List<PairResult> results;
+
+        long durationNanos;
+
+        public long getFailedCount() {
+            return results.stream().filter(PairResult::isFailed).count();
+        }
+
+        /**
+         * Formats the total and per-pair timings, with the slowest pairs first
+         */
+        public String format() {
+            var builder = new StringBuilder();
+            LongSummaryStatistics pairTimes = results.stream()
+                    .mapToLong(PairResult::getDurationNanos)
+                    .summaryStatistics();
+
+            builder.append("Processed %d pairs (%d failed) in %d ms%n"
+                    .formatted(results.size(), getFailedCount(), toMillis(durationNanos)));
+
+            if (!results.isEmpty()) {
+                builder.append("Pair time min/avg/max: %d/%d/%d ms, total %d ms%n".formatted(
+                        toMillis(pairTimes.getMin()), toMillis((long) pairTimes.getAverage()),
+                        toMillis(pairTimes.getMax()), toMillis(pairTimes.getSum())));
+            }
+            results.stream()
+                    .sorted(Comparator.comparingLong(PairResult::getDurationNanos).reversed())
+                    .forEach(result -> builder.append("%s: %d ms, %s%n".formatted(result.getName(),
+                            toMillis(result.getDurationNanos()),
+                            result.isFailed() ? "failed: " + result.getError() : result.getPlayerCount() + " players")));
+
+            return builder.toString();
+        }
+
+        private static long toMillis(long nanos) {
+            return nanos / 1_000_000;
+        }
+    }
+}
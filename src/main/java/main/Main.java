@@ -1,31 +1,82 @@
 package main;
 
-import domain.Match;
+import domain.MatchIndex;
 import domain.ProcessingResult;
 import formatter.BettingDataFormatter;
-import processor.BettingDataProcessor;
+import metrics.Metrics;
 import processor.MatchDataProcessor;
+import processor.PipelinedBettingDataProcessor;
+import processor.ProcessingMode;
 import util.FileUtil;
 
-import java.util.List;
+import java.nio.file.Path;
+import java.util.Arrays;
 
 public class Main {
 
+    private static final String USAGE =
+            "Usage: Main [--input <directory or manifest> [--output <directory>] [--concurrency <count>]] [--metrics]";
+
     public static void main(String[] args) {
+        // Metrics can be watched over JMX during a run, and --metrics prints them at the end
+        Metrics.registerMBean();
+
+        String[] options = Arrays.stream(args)
+                .filter(arg -> !arg.equals("--metrics"))
+                .toArray(String[]::new);
+
+        if (options.length == 0) {
+            processResourceFiles();
+        } else {
+            runBatch(options);
+        }
+        if (options.length < args.length) {
+            System.out.print(Metrics.dump());
+        }
+    }
+
+    private static void processResourceFiles() {
         String matchData = FileUtil.readResourceFile("match_data.txt");
-        String playerData = FileUtil.readResourceFile("player_data.txt");
 
-        // Create list of matches
-        List<Match> matches = MatchDataProcessor
+        // Create index of matches
+        MatchIndex matches = MatchDataProcessor
                 .processMatchData(matchData);
 
-        // Create list of players with actions and calculate host balance change
-        ProcessingResult result = new BettingDataProcessor()
-                .processBettingData(playerData, matches);
+        // Create list of players and calculate host balance change, reading, parsing and processing
+        // the player data in parallel stages and keeping only the aggregates the formatter needs
+        ProcessingResult result = FileUtil.readResourceFile("player_data.txt",
+                playerData -> new PipelinedBettingDataProcessor(ProcessingMode.SUMMARY)
+                        .processBettingData(playerData, matches));
+
+        // Write formatted result to file without building the whole text in memory
+        FileUtil.writeToFile("result.txt", writer -> BettingDataFormatter.formatData(result, writer));
+    }
+
+    /**
+     * Processes every input pair of a directory or manifest, see {@link BatchRunner#findInputPairs(Path)}
+     */
+    private static void runBatch(String[] args) {
+        Path input = null;
+        Path output = Path.of("results");
+        int concurrency = Runtime.getRuntime().availableProcessors();
 
-        // Create string to write to file
-        String resultText = BettingDataFormatter.formatData(result);
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException(USAGE);
+            }
+            switch (args[i]) {
+                case "--input" -> input = Path.of(args[i + 1]);
+                case "--output" -> output = Path.of(args[i + 1]);
+                case "--concurrency" -> concurrency = Integer.parseInt(args[i + 1]);
+                default -> throw new IllegalArgumentException(USAGE);
+            }
+        }
+        if (input == null) {
+            throw new IllegalArgumentException(USAGE);
+        }
+        BatchRunner.BatchSummary summary = new BatchRunner(output, concurrency)
+                .run(BatchRunner.findInputPairs(input));
 
-        FileUtil.writeToFile(resultText, "result.txt");
+        System.out.print(summary.format());
     }
 }
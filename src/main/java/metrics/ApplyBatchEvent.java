@@ -0,0 +1,16 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Applying one batch of parsed player actions
+ */
+@Name("winternship.ApplyBatch")
+@Label("Apply Batch")
+@Category({"Winternship", "Processing"})
+@StackTrace(false)
+public class ApplyBatchEvent extends Event {
+
+    @Label("Actions")
+    public int actionCount;
+}
@@ -0,0 +1,16 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Formatting a processing result
+ */
+@Name("winternship.Format")
+@Label("Format Result")
+@Category({"Winternship", "Processing"})
+@StackTrace(false)
+public class FormatEvent extends Event {
+
+    @Label("Players")
+    public int playerCount;
+}
@@ -0,0 +1,20 @@
+package metrics;
+
+import lombok.Value;
+
+/**
+ * Summary of a {@link LatencyHistogram} at one point in time
+ */
+@Value
+public class HistogramSnapshot {
+
+    long count;
+
+    double mean;
+
+    long median;
+
+    long percentile99;
+
+    long max;
+}
@@ -0,0 +1,25 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A withdrawal or bet larger than the player's balance
+ */
+@Name("winternship.IllegalAction")
+@Label("Illegal Action")
+@Category({"Winternship", "Anomalies"})
+@StackTrace(false)
+public class IllegalActionEvent extends Event {
+
+    @Label("Player Id")
+    public String playerId;
+
+    @Label("Queue Number")
+    public int queueNr;
+
+    @Label("Action Type")
+    public String actionType;
+
+    @Label("Coin Amount")
+    public int coinAmount;
+}
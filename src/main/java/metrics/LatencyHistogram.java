@@ -0,0 +1,108 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of non-negative values like durations in nanoseconds. Values are counted in
+ * log-linear buckets like in HdrHistogram: every power of two is split into 16 buckets,
+ * so a reported value is within about 6% of the recorded one. Recording is lock-free
+ * and doesn't allocate.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int BUCKET_COUNT = getBucket(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public void record(long value) {
+        value = Math.max(0, value);
+
+        counts.incrementAndGet(getBucket(value));
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /**
+     * Records the time passed since the given {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long count = getCount();
+
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * Returns the largest value of the bucket that holds the given percentile,
+     * or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKET_COUNT && total > 0; i++) {
+            seen += counts.get(i);
+
+            if (seen >= target) {
+                return Math.min(getHighestValue(i), getMax());
+            }
+        }
+        return 0;
+    }
+
+    public HistogramSnapshot getSnapshot() {
+        return new HistogramSnapshot(getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /**
+     * Values below {@link #SUB_BUCKETS} get a bucket each. Larger values are shifted right until
+     * they are below it, which leaves them in the upper half of that range, so every shift adds
+     * {@link #HALF_SUB_BUCKETS} buckets and the bucket indexes have no gaps.
+     */
+    static int getBucket(long value) {
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+
+        return shift * HALF_SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long getHighestValue(int bucket) {
+        int shift = Math.max(0, bucket / HALF_SUB_BUCKETS - 1);
+        long lowest = (long) (bucket - shift * HALF_SUB_BUCKETS) << shift;
+
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,175 @@
+package metrics;
+
+import domain.ActionType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters and latency histograms of the processing pipeline. Counters are
+ * {@link LongAdder}s, so threads can update them without contention. Code on the per-action
+ * path counts into local fields and adds them here once per batch.
+ */
+public class Metrics {
+
+    public static final String OBJECT_NAME = "winternship:type=Metrics";
+
+    public static final LongAdder LINES_PARSED = new LongAdder();
+    public static final LongAdder ILLEGAL_ACTIONS = new LongAdder();
+    // Bets on a match the player already bet on, including those that are ignored
+    // because the bet is illegal or the match ended in a draw
+    public static final LongAdder DUPLICATE_BETS = new LongAdder();
+
+    // Bytes of the files read or written through FileUtil, and of mapped and columnar files
+    public static final LongAdder BYTES_READ = new LongAdder();
+    public static final LongAdder BYTES_WRITTEN = new LongAdder();
+
+    public static final LatencyHistogram MATCH_DATA_PROCESSING = new LatencyHistogram();
+    public static final LatencyHistogram PLAYER_DATA_PROCESSING = new LatencyHistogram();
+    public static final LatencyHistogram FORMATTING = new LatencyHistogram();
+    public static final LatencyHistogram BATCH_APPLY = new LatencyHistogram();
+
+    private static final LongAdder[] ACTIONS_APPLIED = {new LongAdder(), new LongAdder(), new LongAdder()};
+
+    public static void addActionsApplied(ActionType actionType, long count) {
+        ACTIONS_APPLIED[actionType.ordinal()].add(count);
+    }
+
+    public static long getActionsApplied(ActionType actionType) {
+        return ACTIONS_APPLIED[actionType.ordinal()].sum();
+    }
+
+    public static void reset() {
+        for (LongAdder counter : ACTIONS_APPLIED) {
+            counter.reset();
+        }
+        LINES_PARSED.reset();
+        ILLEGAL_ACTIONS.reset();
+        DUPLICATE_BETS.reset();
+        BYTES_READ.reset();
+        BYTES_WRITTEN.reset();
+        MATCH_DATA_PROCESSING.reset();
+        PLAYER_DATA_PROCESSING.reset();
+        FORMATTING.reset();
+        BATCH_APPLY.reset();
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server, unless they already are
+     */
+    public static synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            var name = new ObjectName(OBJECT_NAME);
+
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsBean(), name);
+            }
+        } catch (JMException e) {
+            throw new RuntimeException("Could not register metrics MBean!", e);
+        }
+    }
+
+    /**
+     * Formats all metrics, with durations in milliseconds
+     */
+    public static String dump() {
+        var builder = new StringBuilder();
+
+        builder.append("Lines parsed: %d%n".formatted(LINES_PARSED.sum()));
+
+        for (ActionType actionType : ActionType.values()) {
+            builder.append("%s actions applied: %d%n".formatted(actionType, getActionsApplied(actionType)));
+        }
+        builder.append("Illegal actions: %d%n".formatted(ILLEGAL_ACTIONS.sum()));
+        builder.append("Duplicate bets: %d%n".formatted(DUPLICATE_BETS.sum()));
+        builder.append("Bytes read: %d%n".formatted(BYTES_READ.sum()));
+        builder.append("Bytes written: %d%n".formatted(BYTES_WRITTEN.sum()));
+
+        appendHistogram(builder, "Match data processing", MATCH_DATA_PROCESSING);
+        appendHistogram(builder, "Player data processing", PLAYER_DATA_PROCESSING);
+        appendHistogram(builder, "Formatting", FORMATTING);
+        appendHistogram(builder, "Batch apply", BATCH_APPLY);
+
+        return builder.toString();
+    }
+
+    private static void appendHistogram(StringBuilder builder, String name, LatencyHistogram histogram) {
+        HistogramSnapshot snapshot = histogram.getSnapshot();
+
+        builder.append("%s: count=%d mean=%.3f p50=%.3f p99=%.3f max=%.3f ms%n".formatted(name,
+                snapshot.getCount(), snapshot.getMean() / 1e6, snapshot.getMedian() / 1e6,
+                snapshot.getPercentile99() / 1e6, snapshot.getMax() / 1e6));
+    }
+
+    private static class MetricsBean implements MetricsMXBean {
+
+        @Override
+        public long getLinesParsed() {
+            return LINES_PARSED.sum();
+        }
+
+        @Override
+        public long getDepositsApplied() {
+            return getActionsApplied(ActionType.DEPOSIT);
+        }
+
+        @Override
+        public long getWithdrawalsApplied() {
+            return getActionsApplied(ActionType.WITHDRAW);
+        }
+
+        @Override
+        public long getBetsApplied() {
+            return getActionsApplied(ActionType.BET);
+        }
+
+        @Override
+        public long getIllegalActions() {
+            return ILLEGAL_ACTIONS.sum();
+        }
+
+        @Override
+        public long getDuplicateBets() {
+            return DUPLICATE_BETS.sum();
+        }
+
+        @Override
+        public long getBytesRead() {
+            return BYTES_READ.sum();
+        }
+
+        @Override
+        public long getBytesWritten() {
+            return BYTES_WRITTEN.sum();
+        }
+
+        @Override
+        public HistogramSnapshot getMatchDataProcessing() {
+            return MATCH_DATA_PROCESSING.getSnapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getPlayerDataProcessing() {
+            return PLAYER_DATA_PROCESSING.getSnapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getFormatting() {
+            return FORMATTING.getSnapshot();
+        }
+
+        @Override
+        public HistogramSnapshot getBatchApply() {
+            return BATCH_APPLY.getSnapshot();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+}
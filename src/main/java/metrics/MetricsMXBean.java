@@ -0,0 +1,33 @@
+package metrics;
+
+/**
+ * Processing metrics exposed through JMX, see {@link Metrics}. Durations are in nanoseconds.
+ */
+public interface MetricsMXBean {
+
+    long getLinesParsed();
+
+    long getDepositsApplied();
+
+    long getWithdrawalsApplied();
+
+    long getBetsApplied();
+
+    long getIllegalActions();
+
+    long getDuplicateBets();
+
+    long getBytesRead();
+
+    long getBytesWritten();
+
+    HistogramSnapshot getMatchDataProcessing();
+
+    HistogramSnapshot getPlayerDataProcessing();
+
+    HistogramSnapshot getFormatting();
+
+    HistogramSnapshot getBatchApply();
+
+    void reset();
+}
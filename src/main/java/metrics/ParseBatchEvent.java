@@ -0,0 +1,16 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Reading and parsing of one batch of player data lines
+ */
+@Name("winternship.ParseBatch")
+@Label("Parse Batch")
+@Category({"Winternship", "Processing"})
+@StackTrace(false)
+public class ParseBatchEvent extends Event {
+
+    @Label("Lines")
+    public int lineCount;
+}
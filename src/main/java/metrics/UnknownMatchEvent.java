@@ -0,0 +1,15 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * A bet on a match that isn't in the match data
+ */
+@Name("winternship.UnknownMatch")
+@Label("Unknown Match")
+@Category({"Winternship", "Anomalies"})
+public class UnknownMatchEvent extends Event {
+
+    @Label("Match Id")
+    public String matchId;
+}
@@ -0,0 +1,56 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+
+/**
+ * Batch of parsed player actions stored column by column, so actions can be handed between
+ * the parsing and processing stages without an object per action
+ */
+class ActionBatch {
+
+    static final int NO_MATCH = -1;
+
+    final long[] playerIdMostSigBits;
+    final long[] playerIdLeastSigBits;
+    final int[] queueNrs;
+    final ActionType[] actionTypes;
+    final int[] coinAmounts;
+    final int[] matchIndexes;
+    final BetSide[] betSides;
+
+    private int size;
+
+    ActionBatch(int capacity) {
+        playerIdMostSigBits = new long[capacity];
+        playerIdLeastSigBits = new long[capacity];
+        queueNrs = new int[capacity];
+        actionTypes = new ActionType[capacity];
+        coinAmounts = new int[capacity];
+        matchIndexes = new int[capacity];
+        betSides = new BetSide[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size == queueNrs.length;
+    }
+
+    /**
+     * Reserves the next row and returns its index
+     */
+    int addRow() {
+        return size++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
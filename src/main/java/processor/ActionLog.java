@@ -0,0 +1,233 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+import domain.MatchIndex;
+import domain.PlayerAction;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Append-only log of player actions in fixed-width records outside the Java heap.
+ * Records of a player are linked in the order they were added, and a player's actions
+ * are read back through a list view that decodes a {@link PlayerAction} per access.
+ * <p>
+ * Records are written to direct buffers of {@link #CHUNK_RECORDS} records, so the log is
+ * limited by {@code -XX:MaxDirectMemorySize} instead of the heap size. The first buffer starts
+ * at {@link #FIRST_CHUNK_RECORDS} records and doubles until it is full size, so small inputs
+ * don't reserve a whole chunk.
+ */
+class ActionLog {
+
+    static final int CHUNK_RECORDS = 1 << 20;
+    static final int FIRST_CHUNK_RECORDS = 256;
+
+    // Record layout
+    private static final int QUEUE_NR = 0;
+    private static final int COIN_AMOUNT = 4;
+    private static final int BALANCE_CHANGE = 8;
+    private static final int MATCH_INDEX = 12;
+    private static final int NEXT_RECORD = 16;
+    private static final int ACTION_TYPE = 20;
+    private static final int BET_SIDE = 21;
+    private static final int FLAGS = 22;
+    private static final int RECORD_SIZE = 23;
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+    private static final BetSide[] BET_SIDES = BetSide.values();
+
+    private static final byte LEGAL_ACTION = 1;
+    private static final byte BET_WON = 2;
+
+    private static final int NO_RECORD = -1;
+    private static final byte NO_BET_SIDE = -1;
+
+    private final List<ByteBuffer> chunks = new ArrayList<>();
+    private int recordCount;
+
+    // First and last record of every player, by player index
+    private int[] firstRecords = new int[0];
+    private int[] lastRecords = new int[0];
+    private int[] actionCounts = new int[0];
+
+    int size() {
+        return recordCount;
+    }
+
+    /**
+     * Appends the action as the last action of the player with the given index
+     */
+    void append(int player, PlayerAction action, int matchIndex) {
+        if (recordCount == Integer.MAX_VALUE) {
+            throw new IllegalStateException("Action log is full!");
+        }
+        ensurePlayerCapacity(player);
+
+        int record = recordCount++;
+
+        ensureRecordCapacity(record);
+
+        ByteBuffer chunk = getChunk(record);
+        int offset = getOffset(record);
+
+        chunk.putInt(offset + QUEUE_NR, action.getQueueNr());
+        chunk.put(offset + ACTION_TYPE, (byte) action.getActionType().ordinal());
+        chunk.put(offset + BET_SIDE, action.getBetSide() == null ? NO_BET_SIDE : (byte) action.getBetSide().ordinal());
+        chunk.putInt(offset + COIN_AMOUNT, action.getCoinAmount());
+        chunk.putInt(offset + BALANCE_CHANGE, action.getPlayerBalanceChange());
+        chunk.putInt(offset + MATCH_INDEX, matchIndex);
+        chunk.put(offset + FLAGS, (byte) ((action.isLegalAction() ? LEGAL_ACTION : 0) | (action.isBetWon() ? BET_WON : 0)));
+        chunk.putInt(offset + NEXT_RECORD, NO_RECORD);
+
+        if (actionCounts[player]++ == 0) {
+            firstRecords[player] = record;
+        } else {
+            int last = lastRecords[player];
+
+            getChunk(last).putInt(getOffset(last) + NEXT_RECORD, record);
+        }
+        lastRecords[player] = record;
+    }
+
+    /**
+     * Returns a read-only view of the player's actions. Iterating the view follows the links
+     * between the records, while the first {@link List#get(int)} collects the player's record
+     * numbers once, so later calls read a record directly.
+     */
+    List<PlayerAction> getActions(int player, MatchIndex matches) {
+        int count = player < actionCounts.length ? actionCounts[player] : 0;
+        int first = count > 0 ? firstRecords[player] : NO_RECORD;
+
+        return new PlayerActionView(first, count, matches);
+    }
+
+    private PlayerAction read(int record, MatchIndex matches) {
+        ByteBuffer chunk = getChunk(record);
+        int offset = getOffset(record);
+
+        var action = new PlayerAction(
+                chunk.getInt(offset + QUEUE_NR),
+                ACTION_TYPES[chunk.get(offset + ACTION_TYPE)],
+                chunk.getInt(offset + COIN_AMOUNT));
+
+        byte flags = chunk.get(offset + FLAGS);
+        byte betSide = chunk.get(offset + BET_SIDE);
+        int matchIndex = chunk.getInt(offset + MATCH_INDEX);
+
+        action.setPlayerBalanceChange(chunk.getInt(offset + BALANCE_CHANGE));
+        action.setLegalAction((flags & LEGAL_ACTION) != 0);
+        action.setBetWon((flags & BET_WON) != 0);
+        action.setBetSide(betSide == NO_BET_SIDE ? null : BET_SIDES[betSide]);
+
+        if (matchIndex != ActionBatch.NO_MATCH) {
+            action.setMatchId(matches.get(matchIndex).getId());
+        }
+        return action;
+    }
+
+    private int getNext(int record) {
+        return getChunk(record).getInt(getOffset(record) + NEXT_RECORD);
+    }
+
+    private ByteBuffer getChunk(int record) {
+        return chunks.get(record / CHUNK_RECORDS);
+    }
+
+    /**
+     * Adds or grows the chunk the record is written to. Only the first chunk starts smaller
+     * than {@link #CHUNK_RECORDS} records, and it is copied to a buffer twice its size when full.
+     */
+    private void ensureRecordCapacity(int record) {
+        int chunk = record / CHUNK_RECORDS;
+
+        if (chunk == chunks.size()) {
+            int records = chunk == 0 ? FIRST_CHUNK_RECORDS : CHUNK_RECORDS;
+
+            chunks.add(ByteBuffer.allocateDirect(records * RECORD_SIZE));
+
+        } else if (getOffset(record) == chunks.get(chunk).capacity()) {
+            ByteBuffer full = chunks.get(chunk);
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.min(full.capacity() * 2, CHUNK_RECORDS * RECORD_SIZE));
+
+            grown.put(0, full, 0, full.capacity());
+            chunks.set(chunk, grown);
+        }
+    }
+
+    private static int getOffset(int record) {
+        return record % CHUNK_RECORDS * RECORD_SIZE;
+    }
+
+    private void ensurePlayerCapacity(int player) {
+        if (player >= actionCounts.length) {
+            int capacity = Math.max(player + 1, actionCounts.length * 2);
+
+            firstRecords = Arrays.copyOf(firstRecords, capacity);
+            lastRecords = Arrays.copyOf(lastRecords, capacity);
+            actionCounts = Arrays.copyOf(actionCounts, capacity);
+        }
+    }
+
+    private class PlayerActionView extends AbstractList<PlayerAction> {
+
+        private final int first;
+        private final int size;
+        private final MatchIndex matches;
+
+        // Record of every action by position, collected on first access by position
+        private int[] records;
+
+        private PlayerActionView(int first, int size, MatchIndex matches) {
+            this.first = first;
+            this.size = size;
+            this.matches = matches;
+        }
+
+        @Override
+        public PlayerAction get(int index) {
+            Objects.checkIndex(index, size);
+
+            if (records == null) {
+                records = new int[size];
+                records[0] = first;
+
+                for (int i = 1; i < size; i++) {
+                    records[i] = getNext(records[i - 1]);
+                }
+            }
+            return read(records[index], matches);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Iterator<PlayerAction> iterator() {
+            return new Iterator<>() {
+
+                private int record = first;
+                private int remaining = size;
+
+                @Override
+                public boolean hasNext() {
+                    return remaining > 0;
+                }
+
+                @Override
+                public PlayerAction next() {
+                    if (remaining == 0) {
+                        throw new NoSuchElementException();
+                    }
+                    PlayerAction action = read(record, matches);
+
+                    record = --remaining > 0 ? getNext(record) : NO_RECORD;
+
+                    return action;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+import domain.MatchIndex;
+import metrics.UnknownMatchEvent;
+import util.CsvTokenizer;
+
+import java.util.UUID;
+
+/**
+ * Parses player data lines into an {@link ActionBatch}. Match ids are resolved to their
+ * index in the match catalog, so an unknown match fails while parsing.
+ */
+class ActionParser {
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+    private static final BetSide[] BET_SIDES = BetSide.values();
+
+    private final CsvTokenizer tokenizer = new CsvTokenizer();
+    private final MatchIndex matches;
+
+    ActionParser(MatchIndex matches) {
+        this.matches = matches;
+    }
+
+    /**
+     * Parses a non-empty line into the next row of the batch
+     */
+    void parse(CharSequence line, int queueNr, ActionBatch batch) {
+        CsvTokenizer values = tokenizer.tokenize(line);
+
+        long playerIdMostSigBits = values.parseUuidMostSignificantBits(0);
+        long playerIdLeastSigBits = values.parseUuidLeastSignificantBits(0);
+        ActionType actionType = values.getEnum(1, ACTION_TYPES);
+
+        if (actionType == null) {
+            throw new IllegalArgumentException("%s is not a valid action!".formatted(values.getString(1)));
+        }
+        int coinAmount = values.parseInt(3);
+        int matchIndex = ActionBatch.NO_MATCH;
+        BetSide betSide = null;
+
+        if (actionType == ActionType.BET) {
+            matchIndex = indexOfMatch(matches, values.parseUuid(2));
+            // Any other side is kept as null, which is a bet that never wins
+            betSide = values.getEnum(4, BET_SIDES);
+        }
+        int row = batch.addRow();
+
+        batch.playerIdMostSigBits[row] = playerIdMostSigBits;
+        batch.playerIdLeastSigBits[row] = playerIdLeastSigBits;
+        batch.queueNrs[row] = queueNr;
+        batch.actionTypes[row] = actionType;
+        batch.coinAmounts[row] = coinAmount;
+        batch.matchIndexes[row] = matchIndex;
+        batch.betSides[row] = betSide;
+    }
+
+    /**
+     * Returns the index of the match like {@link MatchIndex#indexOf(UUID)}, recording an
+     * {@link UnknownMatchEvent} before failing for an unknown match
+     */
+    static int indexOfMatch(MatchIndex matches, UUID matchId) {
+        int index = matches.findIndex(matchId);
+
+        if (index == MatchIndex.NOT_FOUND) {
+            var event = new UnknownMatchEvent();
+
+            if (event.shouldCommit()) {
+                event.matchId = matchId.toString();
+                event.commit();
+            }
+            return matches.indexOf(matchId);
+        }
+        return index;
+    }
+}
@@ -1,132 +1,573 @@
 package processor;
 
+import domain.ActionType;
+import domain.BetSide;
 import domain.Match;
+import domain.MatchIndex;
 import domain.Player;
 import domain.PlayerAction;
 import domain.ProcessingResult;
+import metrics.ApplyBatchEvent;
+import metrics.IllegalActionEvent;
+import metrics.Metrics;
+import metrics.ParseBatchEvent;
+import util.FileUtil;
+import util.LongHashSet;
 
-import java.util.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 public class BettingDataProcessor {
 
-    private final Map<UUID, Player> players = new HashMap<>();
-    private List<Match> matches = new ArrayList<>();
+    static final int BATCH_SIZE = 1024;
+
+    private static final int CHECKPOINT_MAGIC = 0x42455453;
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+
+    private final ProcessingMode mode;
+    private final PlayerTable players;
+    private final ActionLog actionLog;
+    private final LongHashSet betMatches = new LongHashSet();
+    private final ActionBatch batch = new ActionBatch(BATCH_SIZE);
+    private MatchIndex matches = new MatchIndex();
+    private ActionParser parser = new ActionParser(matches);
     private int actionQueueNr;
 
+    // Kept up to date with every action, so it can be read at any time
+    private long hostBalanceChange;
+
+    // Counts since the last time they were added to the Metrics, by action type ordinal
+    private final long[] appliedActionCounts = new long[ACTION_TYPES.length];
+    private long illegalActionCount;
+    private long duplicateBetCount;
+    private long parsedLineCount;
+
+    // Spans parsing the lines of the current batch
+    private ParseBatchEvent parseEvent;
+
+    public BettingDataProcessor() {
+        this(ProcessingMode.FULL);
+    }
+
+    public BettingDataProcessor(ProcessingMode mode) {
+        this.mode = mode;
+        this.players = new PlayerTable(mode == ProcessingMode.FULL);
+        this.actionLog = mode == ProcessingMode.OFF_HEAP ? new ActionLog() : null;
+    }
+
+    /**
+     * Creates a processor that is fed lines with externally assigned queue numbers
+     * through {@link #processLine(CharSequence, int)}
+     */
+    BettingDataProcessor(ProcessingMode mode, MatchIndex matches) {
+        this(mode);
+        setMatches(matches);
+    }
+
     public ProcessingResult processBettingData(String playerData, List<Match> matches) {
-        this.matches = matches;
+        return processBettingData(playerData, new MatchIndex(matches));
+    }
+
+    public ProcessingResult processBettingData(String playerData, MatchIndex matches) {
+        return processBettingData(new StringReader(playerData), matches);
+    }
+
+    /**
+     * Processes a player data file by memory-mapping it, so lines are parsed straight
+     * from the mapped bytes without creating a String per line.
+     */
+    public ProcessingResult processBettingData(Path playerData, MatchIndex matches) {
+        long start = System.nanoTime();
+
+        setMatches(matches);
+
+        FileUtil.readMappedFile(playerData, this::processLine);
+
+        ProcessingResult result = createResult();
+
+        Metrics.PLAYER_DATA_PROCESSING.recordSince(start);
+
+        return result;
+    }
+
+    /**
+     * Processes a player data file that is only appended to, resuming from the checkpoint file if it exists.
+     * Only lines after the byte offset in the checkpoint are processed, after which the checkpoint is
+     * replaced with the state at the end of the last complete line. An unterminated last line is
+     * left for the next run, as it may still be written to.
+     * <p>
+     * Checkpoints hold the player aggregates but not the actions, so this is only supported
+     * in {@link ProcessingMode#SUMMARY} and on a processor that hasn't processed data yet.
+     */
+    public ProcessingResult processBettingData(Path playerData, MatchIndex matches, Path checkpoint) {
+        if (mode != ProcessingMode.SUMMARY) {
+            throw new IllegalStateException("Checkpoints are only supported in SUMMARY mode!");
+        }
+        long start = System.nanoTime();
+
+        setMatches(matches);
+
+        long offset = Files.exists(checkpoint) ? readCheckpoint(checkpoint, playerData) : 0;
+
+        offset = FileUtil.readMappedFile(playerData, offset, false, this::processLine);
+        applyPendingBatch();
+        writeCheckpoint(checkpoint, offset);
+
+        ProcessingResult result = createResult();
+
+        Metrics.PLAYER_DATA_PROCESSING.recordSince(start);
+
+        return result;
+    }
+
+    public ProcessingResult processBettingData(InputStream playerData, MatchIndex matches) {
+        return processBettingData(new InputStreamReader(playerData, StandardCharsets.UTF_8), matches);
+    }
+
+    /**
+     * Processes player data one line at a time, so only the current line is held in memory.
+     * The reader is not closed.
+     */
+    public ProcessingResult processBettingData(Reader playerData, MatchIndex matches) {
+        long start = System.nanoTime();
+
+        setMatches(matches);
+
+        FileUtil.readLines(playerData, this::processLine);
+
+        ProcessingResult result = createResult();
+
+        Metrics.PLAYER_DATA_PROCESSING.recordSince(start);
+
+        return result;
+    }
+
+    ProcessingResult createResult() {
+        applyPendingBatch();
+
+        List<Player> result = new ArrayList<>(players.size());
+
+        for (int player = 0; player < players.size(); player++) {
+            result.add(createPlayer(player));
+        }
+        return new ProcessingResult(hostBalanceChange, result);
+    }
+
+    private void applyPendingBatch() {
+        if (!batch.isEmpty()) {
+            applyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void processLine(CharSequence line) {
+        if (line.length() == 0) {
+            return;
+        }
+        processLine(line, actionQueueNr++);
+    }
+
+    /**
+     * Processes a non-empty line as the action with the given queue number. Lines are
+     * parsed into a batch that is applied once it's full or the result is created.
+     */
+    void processLine(CharSequence line, int queueNr) {
+        if (batch.isEmpty()) {
+            parseEvent = new ParseBatchEvent();
+            parseEvent.begin();
+        }
+        parser.parse(line, queueNr, batch);
+        parsedLineCount++;
+
+        if (batch.isFull()) {
+            applyBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Applies all actions of the batch in order
+     */
+    void applyBatch(ActionBatch actions) {
+        commitParseEvent(actions);
+
+        long start = System.nanoTime();
+        var event = new ApplyBatchEvent();
+
+        event.begin();
+
+        try {
+            for (int i = 0; i < actions.size(); ) {
+                if (actions.actionTypes[i] != ActionType.BET) {
+                    i = applyWalletRun(actions, i);
+                } else {
+                    applyAction(actions.playerIdMostSigBits[i], actions.playerIdLeastSigBits[i], actions.queueNrs[i],
+                            actions.actionTypes[i], actions.coinAmounts[i], actions.matchIndexes[i], actions.betSides[i]);
+                    i++;
+                }
+            }
+        } finally {
+            Metrics.BATCH_APPLY.recordSince(start);
+            publishMetrics();
+
+            if (event.shouldCommit()) {
+                event.actionCount = actions.size();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Applies the run of consecutive deposits and withdrawals of one player that starts at the row
+     * and returns the row after the run. The player is looked up once and the balance is kept in
+     * a local. Action objects are only created for actions that are kept, which in
+     * {@link ProcessingMode#SUMMARY} is just an illegal withdrawal.
+     */
+    private int applyWalletRun(ActionBatch actions, int start) {
+        long mostSigBits = actions.playerIdMostSigBits[start];
+        long leastSigBits = actions.playerIdLeastSigBits[start];
+        int player = players.getOrAdd(mostSigBits, leastSigBits);
+        boolean isKeepingActions = players.isRetainingActions() || actionLog != null;
+        long balance = players.getBalance(player);
+        int row = start;
+
+        for (; row < actions.size(); row++) {
+            ActionType actionType = actions.actionTypes[row];
+
+            if (actionType == ActionType.BET
+                    || actions.playerIdMostSigBits[row] != mostSigBits
+                    || actions.playerIdLeastSigBits[row] != leastSigBits) {
+                break;
+            }
+            int coinAmount = actions.coinAmounts[row];
+            int balanceChange;
+
+            if (actionType == ActionType.DEPOSIT) {
+                balanceChange = coinAmount;
+            } else if (balance >= coinAmount) {
+                balanceChange = -coinAmount;
+            } else {
+                players.setBalance(player, balance);
+
+                var action = new PlayerAction(actions.queueNrs[row], actionType, coinAmount);
 
-        for (String line : playerData.split("\n")) {
-            if (line.isEmpty()) {
+                rejectAction(player, action);
+                addAction(player, action, ActionBatch.NO_MATCH);
                 continue;
             }
-            String[] values = line.split(",", -1);
+            balance += balanceChange;
+            appliedActionCounts[actionType.ordinal()]++;
+
+            if (isKeepingActions) {
+                var action = new PlayerAction(actions.queueNrs[row], actionType, coinAmount);
+
+                action.setPlayerBalanceChange(balanceChange);
+                keepAction(player, action, ActionBatch.NO_MATCH);
+            }
+        }
+        players.setBalance(player, balance);
+
+        return row;
+    }
 
-            Player player = getPlayer(UUID.fromString(values[0]));
+    /**
+     * Ends the parse event of the batch, if the batch was parsed by this processor
+     */
+    private void commitParseEvent(ActionBatch actions) {
+        if (parseEvent != null && actions == batch) {
+            if (parseEvent.shouldCommit()) {
+                parseEvent.lineCount = actions.size();
+                parseEvent.commit();
+            }
+            parseEvent = null;
+        }
+    }
 
-            processPlayerAction(player, values);
+    /**
+     * Applies a single action. The match index is {@link ActionBatch#NO_MATCH} and the bet side
+     * null for actions other than bets.
+     */
+    void processAction(long playerIdMostSigBits, long playerIdLeastSigBits, int queueNr, ActionType actionType,
+                       int coinAmount, int matchIndex, BetSide betSide) {
+        try {
+            applyAction(playerIdMostSigBits, playerIdLeastSigBits, queueNr, actionType, coinAmount, matchIndex, betSide);
+        } finally {
+            publishMetrics();
         }
-        return new ProcessingResult(
-                calculateHostBalanceChange(),
-                players.values().stream().toList());
     }
 
-    private void processPlayerAction(Player player, String[] values) {
-        var action = new PlayerAction(actionQueueNr++, values[1], Integer.parseInt(values[3]));
+    private void applyAction(long playerIdMostSigBits, long playerIdLeastSigBits, int queueNr, ActionType actionType,
+                             int coinAmount, int matchIndex, BetSide betSide) {
+        int player = players.getOrAdd(playerIdMostSigBits, playerIdLeastSigBits);
+        var action = new PlayerAction(queueNr, actionType, coinAmount);
 
-        switch (action.getActionName()) {
-            case "DEPOSIT":
+        switch (actionType) {
+            case DEPOSIT:
                 action.setPlayerBalanceChange(action.getCoinAmount());
-                player.setBalance(player.getBalance() + action.getCoinAmount());
+                players.addToBalance(player, action.getCoinAmount());
                 break;
-            case "WITHDRAW":
+            case WITHDRAW:
                 if (validatePlayerAction(player, action)) {
                     action.setPlayerBalanceChange(action.getCoinAmount() * -1);
-                    player.setBalance(player.getBalance() - action.getCoinAmount());
+                    players.addToBalance(player, -action.getCoinAmount());
                 }
                 break;
-            case "BET":
-                processBetAction(action, player, values);
+            case BET:
+                processBetAction(action, player, matchIndex, betSide);
                 break;
-            default:
-                throw new IllegalArgumentException("%s is not a valid action!".formatted(action.getActionName()));
         }
-        player.getPlayerActions().add(action);
+        addAction(player, action, matchIndex);
+    }
+
+    /**
+     * Returns the balance of the player, which is 0 for players without actions
+     */
+    long getBalance(UUID playerId) {
+        int player = players.indexOf(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+
+        return player == PlayerTable.NOT_FOUND ? 0 : players.getBalance(player);
+    }
+
+    /**
+     * Returns whether the player has no illegal actions, which is true for players without actions
+     */
+    boolean isLegitimate(UUID playerId) {
+        int player = players.indexOf(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+
+        return player == PlayerTable.NOT_FOUND || players.isLegitimate(player);
     }
 
-    private void processBetAction(PlayerAction action, Player player, String[] values) {
-        Match match = findMatchById(UUID.fromString(values[2]));
-        String betSide = values[4];
+    long getHostBalanceChange() {
+        return hostBalanceChange;
+    }
 
-        action.setMatchId(match.getId());
+    private void processBetAction(PlayerAction action, int player, int matchIndex, BetSide betSide) {
+        action.setMatchId(matches.get(matchIndex).getId());
         action.setBetSide(betSide);
 
-        if (!validatePlayerAction(player, action) || match.getOutcome().equals("DRAW")) {
+        // Every bet counts as a bet on the match, including illegal bets and bets on a draw
+        boolean isFirstBetOnMatch = betMatches.add(getBetKey(player, matchIndex));
+
+        if (!isFirstBetOnMatch) {
+            duplicateBetCount++;
+        }
+        if (!validatePlayerAction(player, action) || matches.isDraw(matchIndex)) {
             return;
 
-        } else if (player.hasBetOnMatch(match.getId())) {
+        } else if (!isFirstBetOnMatch) {
             throw new IllegalArgumentException("Player %s already bet on match %s!"
-                    .formatted(player.getId(), match.getId()));
+                    .formatted(players.getId(player), action.getMatchId()));
         }
 
-        action.setBetWon(match.getOutcome().equals(betSide));
+        action.setBetWon(matches.isWonBy(matchIndex, betSide));
 
-        int balanceChange = calculatePlayerBalanceChange(match, action);
+        int balanceChange = action.isBetWon()
+                ? matches.calculateWinnings(matchIndex, action.getCoinAmount())
+                : action.getCoinAmount() * -1;
 
         action.setPlayerBalanceChange(balanceChange);
-        player.setBalance(player.getBalance() + balanceChange);
+        players.addToBalance(player, balanceChange);
     }
 
-    private boolean validatePlayerAction(Player player, PlayerAction action) {
-        if (player.getBalance() >= action.getCoinAmount()) {
+    private boolean validatePlayerAction(int player, PlayerAction action) {
+        if (players.getBalance(player) >= action.getCoinAmount()) {
             return true;
         } else {
-            action.setLegalAction(false);
-            player.setLegitimate(false);
+            rejectAction(player, action);
             return false;
         }
     }
 
-    private int calculateHostBalanceChange() {
-        int balanceChange = 0;
+    private void rejectAction(int player, PlayerAction action) {
+        action.setLegalAction(false);
+        recordIllegalAction(player, action);
 
-        for (Player player : players.values()) {
-            if (!player.isLegitimate()) {
-                continue;
+        // Bets of illegitimate players don't count towards the host balance
+        if (players.isLegitimate(player)) {
+            hostBalanceChange += players.getBetBalanceChange(player);
+            players.setIllegitimate(player);
+        }
+    }
+
+    private void addAction(int player, PlayerAction action, int matchIndex) {
+        appliedActionCounts[action.getActionType().ordinal()]++;
+
+        if (!action.isLegalAction()) {
+            illegalActionCount++;
+            players.addIllegalAction(player, action);
+        } else if (action.getActionType() == ActionType.BET) {
+            players.addLegalBet(player, action.isBetWon(), action.getPlayerBalanceChange());
+
+            if (players.isLegitimate(player)) {
+                hostBalanceChange -= action.getPlayerBalanceChange();
+            }
+        }
+        keepAction(player, action, matchIndex);
+    }
+
+    /**
+     * Stores the action if the mode keeps every action
+     */
+    private void keepAction(int player, PlayerAction action, int matchIndex) {
+        if (players.isRetainingActions()) {
+            players.addAction(player, action);
+        } else if (actionLog != null) {
+            actionLog.append(player, action, matchIndex);
+        }
+    }
+
+    private void recordIllegalAction(int player, PlayerAction action) {
+        var event = new IllegalActionEvent();
+
+        if (event.shouldCommit()) {
+            event.playerId = players.getId(player).toString();
+            event.queueNr = action.getQueueNr();
+            event.actionType = action.getActionType().name();
+            event.coinAmount = action.getCoinAmount();
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds the counts since the last call to the process-wide metrics
+     */
+    private void publishMetrics() {
+        for (ActionType actionType : ACTION_TYPES) {
+            if (appliedActionCounts[actionType.ordinal()] > 0) {
+                Metrics.addActionsApplied(actionType, appliedActionCounts[actionType.ordinal()]);
+                appliedActionCounts[actionType.ordinal()] = 0;
+            }
+        }
+        if (illegalActionCount > 0) {
+            Metrics.ILLEGAL_ACTIONS.add(illegalActionCount);
+            illegalActionCount = 0;
+        }
+        if (duplicateBetCount > 0) {
+            Metrics.DUPLICATE_BETS.add(duplicateBetCount);
+            duplicateBetCount = 0;
+        }
+        if (parsedLineCount > 0) {
+            Metrics.LINES_PARSED.add(parsedLineCount);
+            parsedLineCount = 0;
+        }
+    }
+
+    private long calculateHostBalanceChange() {
+        long balanceChange = 0;
+
+        for (int player = 0; player < players.size(); player++) {
+            if (players.isLegitimate(player)) {
+                balanceChange -= players.getBetBalanceChange(player);
             }
-            balanceChange += player.getPlayerActions().stream()
-                    .filter(a -> a.isLegalAction() && a.getActionName().equals("BET"))
-                    .reduce(0, (sum, a) -> sum - a.getPlayerBalanceChange(), Integer::sum);
         }
         return balanceChange;
     }
 
-    private int calculatePlayerBalanceChange(Match match, PlayerAction action) {
-        double returnRate = match.getOutcome().equals("A")
-                ? match.getReturnRateA()
-                : match.getReturnRateB();
 
-        return action.isBetWon()
-                ? (int) Math.floor(action.getCoinAmount() * returnRate)
-                : action.getCoinAmount() * -1;
+    /**
+     * Restores the state written by {@link #writeCheckpoint(Path, long)} and returns the byte offset
+     * of the player data it was written at
+     */
+    private long readCheckpoint(Path checkpoint, Path playerData) {
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IllegalArgumentException("%s is not a valid checkpoint!".formatted(checkpoint));
+            }
+            long offset = in.readLong();
+
+            if (offset > Files.size(playerData)) {
+                throw new IllegalArgumentException("Checkpoint %s is ahead of %s!".formatted(checkpoint, playerData));
+            }
+            actionQueueNr = in.readInt();
+            players.read(in);
+            hostBalanceChange = calculateHostBalanceChange();
+
+            // Bets are keyed by match id, so the checkpoint stays valid if the match data is reordered
+            int betCount = in.readInt();
+
+            for (int i = 0; i < betCount; i++) {
+                int player = in.readInt();
+                int matchIndex = matches.indexOf(new UUID(in.readLong(), in.readLong()));
+
+                betMatches.add(getBetKey(player, matchIndex));
+            }
+            return offset;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read checkpoint %s!".formatted(checkpoint), e);
+        }
+    }
+
+    /**
+     * Writes the processing state to a temporary file that then replaces the checkpoint,
+     * so a failed write leaves the previous checkpoint intact
+     */
+    private void writeCheckpoint(Path checkpoint, long offset) {
+        Path tempFile = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(CHECKPOINT_MAGIC);
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeLong(offset);
+                out.writeInt(actionQueueNr);
+                players.write(out);
+                out.writeInt(betMatches.size());
+
+                for (long betKey : betMatches.toArray()) {
+                    UUID matchId = matches.get((int) betKey).getId();
+
+                    out.writeInt((int) (betKey >>> 32));
+                    out.writeLong(matchId.getMostSignificantBits());
+                    out.writeLong(matchId.getLeastSignificantBits());
+                }
+            }
+            Files.move(tempFile, checkpoint, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not write checkpoint %s!".formatted(checkpoint), e);
+        }
     }
 
-    private Player getPlayer(UUID id) {
-        if (players.containsKey(id)) {
-            return players.get(id);
+    private void setMatches(MatchIndex matches) {
+        this.matches = matches;
+        this.parser = new ActionParser(matches);
+    }
+
+    /**
+     * Creates the player object returned in the result from the player table
+     */
+    private Player createPlayer(int index) {
+        var player = new Player(players.getId(index));
+
+        if (players.isRetainingActions()) {
+            players.getActions(index).forEach(player::addAction);
         } else {
-            var player = new Player(id);
-            players.put(id, player);
+            player.setRetainActions(false);
+            player.setLegalBetCount(players.getLegalBetCount(index));
+            player.setBetsWonCount(players.getBetsWonCount(index));
+            player.setBetBalanceChange(players.getBetBalanceChange(index));
+            player.setFirstIllegalAction(players.getFirstIllegalAction(index));
 
-            return player;
+            if (actionLog != null) {
+                player.setPlayerActions(actionLog.getActions(index, matches));
+            }
         }
+        player.setBalance(players.getBalance(index));
+        player.setLegitimate(players.isLegitimate(index));
+
+        return player;
     }
 
-    private Match findMatchById(UUID id) {
-        return matches.stream()
-                .filter(m -> m.getId().equals(id))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Match with id %s not found!"
-                        .formatted(id)));
+    private static long getBetKey(int player, int matchIndex) {
+        return (long) player << 32 | matchIndex;
     }
 }
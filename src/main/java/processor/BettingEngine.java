@@ -0,0 +1,71 @@
+package processor;
+
+import domain.ActionType;
+import domain.MatchIndex;
+import domain.PlayerActionEvent;
+import domain.ProcessingResult;
+
+import java.util.UUID;
+
+/**
+ * Applies player actions one at a time as they happen, with the same rules as
+ * {@link BettingDataProcessor}. Balances and the host balance change are kept up to date
+ * with every action, so they can be queried at any time without recalculation.
+ * <p>
+ * All methods are synchronized, so an engine can be shared between threads. Actions get
+ * queue numbers in the order they are applied.
+ */
+public class BettingEngine {
+
+    private final MatchIndex matches;
+    private final BettingDataProcessor processor;
+    private int actionQueueNr;
+
+    public BettingEngine(MatchIndex matches) {
+        this(matches, ProcessingMode.SUMMARY);
+    }
+
+    public BettingEngine(MatchIndex matches, ProcessingMode mode) {
+        this.matches = matches;
+        this.processor = new BettingDataProcessor(mode, matches);
+    }
+
+    /**
+     * Applies the action. An action that is rejected, like a second bet on a match or
+     * a bet on an unknown match, throws an {@link IllegalArgumentException} and doesn't
+     * change the balances.
+     */
+    public synchronized void apply(PlayerActionEvent event) {
+        int matchIndex = ActionBatch.NO_MATCH;
+
+        if (event.getActionType() == ActionType.BET) {
+            if (event.getMatchId() == null || event.getBetSide() == null) {
+                throw new IllegalArgumentException("Bet %s must have a match and a bet side!".formatted(event));
+            }
+            matchIndex = ActionParser.indexOfMatch(matches, event.getMatchId());
+        }
+        UUID playerId = event.getPlayerId();
+
+        processor.processAction(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(),
+                actionQueueNr++, event.getActionType(), event.getCoinAmount(), matchIndex, event.getBetSide());
+    }
+
+    public synchronized long getBalance(UUID playerId) {
+        return processor.getBalance(playerId);
+    }
+
+    public synchronized boolean isLegitimate(UUID playerId) {
+        return processor.isLegitimate(playerId);
+    }
+
+    public synchronized long getHostBalanceChange() {
+        return processor.getHostBalanceChange();
+    }
+
+    /**
+     * Returns the players and host balance change after all actions applied so far
+     */
+    public synchronized ProcessingResult createResult() {
+        return processor.createResult();
+    }
+}
@@ -0,0 +1,257 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import domain.ProcessingResult;
+import metrics.Metrics;
+import util.FileUtil;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Binary columnar copy of the match and player data, so repeated runs don't parse text.
+ * The file starts with all matches stored column by column, followed by blocks of at most
+ * {@link #BLOCK_SIZE} player actions. Every block starts with its row count and stores each
+ * column of its rows together: player ids as two longs, action types as bytes, coin amounts
+ * as ints, match indexes into the matches of the file and bet sides as bytes.
+ * Actions are stored in queue order, so queue numbers are not stored.
+ * <p>
+ * Blocks are memory-mapped one at a time and copied straight into an {@link ActionBatch}.
+ */
+public class ColumnarDataFile {
+
+    static final int BLOCK_SIZE = 64 * 1024;
+
+    private static final int MAGIC = 0x42455443;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    private static final int MATCH_SIZE = 2 * Long.BYTES + 2 * Double.BYTES + 1;
+    private static final int ACTION_SIZE = 2 * Long.BYTES + 1 + Integer.BYTES + Integer.BYTES + 1;
+    private static final int MAX_BLOCK_BYTES = Integer.BYTES + BLOCK_SIZE * ACTION_SIZE;
+
+    private static final byte NO_BET_SIDE = -1;
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+    private static final BetSide[] BET_SIDES = BetSide.values();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    /**
+     * Parses match and player data in the text format and writes them to the file.
+     * The reader is not closed.
+     */
+    public static void convert(String matchData, Reader playerData, Path file) {
+        MatchIndex matches = MatchDataProcessor.processMatchData(matchData);
+
+        try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeMatches(out, matches.getMatches());
+
+            var parser = new ActionParser(matches);
+            var batch = new ActionBatch(BLOCK_SIZE);
+
+            FileUtil.readLines(playerData, line -> {
+                if (line.isEmpty()) {
+                    return;
+                }
+                // Queue numbers follow from the order of the rows, so they aren't stored
+                parser.parse(line, batch.size(), batch);
+
+                if (batch.isFull()) {
+                    try {
+                        writeBlock(out, batch);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                writeBlock(out, batch);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Could not write file %s!".formatted(file), e);
+        }
+    }
+
+    public static MatchIndex readMatches(Path file) {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readMatches(channel, file);
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s!".formatted(file), e);
+        }
+    }
+
+    /**
+     * Processes the player data of the file against its matches with the same rules as
+     * {@link BettingDataProcessor}
+     */
+    public static ProcessingResult processBettingData(Path file, ProcessingMode mode) {
+        long start = System.nanoTime();
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MatchIndex matches = readMatches(channel, file);
+
+            var processor = new BettingDataProcessor(mode, matches);
+            var batch = new ActionBatch(BLOCK_SIZE);
+            long position = HEADER_SIZE + (long) matches.size() * MATCH_SIZE;
+            int queueNr = 0;
+
+            while (position < channel.size()) {
+                // Map enough for the largest block, as the row count is only known once mapped
+                ByteBuffer block = map(channel, position,
+                        Math.min(MAX_BLOCK_BYTES, channel.size() - position));
+                int rowCount = block.getInt(0);
+
+                if (rowCount < 0 || rowCount > BLOCK_SIZE) {
+                    throw new IllegalArgumentException("Block at byte %d of %s is corrupt!".formatted(position, file));
+                }
+                long blockBytes = Integer.BYTES + (long) rowCount * ACTION_SIZE;
+
+                if (blockBytes > block.capacity()) {
+                    throw new EOFException("File ends at byte %d, before byte %d"
+                            .formatted(channel.size(), position + blockBytes));
+                }
+                readBlock(block.position(Integer.BYTES), rowCount, queueNr, batch);
+                processor.applyBatch(batch);
+
+                queueNr += rowCount;
+                position += blockBytes;
+            }
+            ProcessingResult result = processor.createResult();
+
+            Metrics.BYTES_READ.add(position);
+            Metrics.PLAYER_DATA_PROCESSING.recordSince(start);
+
+            return result;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s!".formatted(file), e);
+        }
+    }
+
+    private static void writeMatches(DataOutput out, List<Match> matches) throws IOException {
+        out.writeInt(matches.size());
+
+        for (Match match : matches) {
+            out.writeLong(match.getId().getMostSignificantBits());
+        }
+        for (Match match : matches) {
+            out.writeLong(match.getId().getLeastSignificantBits());
+        }
+        for (Match match : matches) {
+            out.writeDouble(match.getReturnRateA());
+        }
+        for (Match match : matches) {
+            out.writeDouble(match.getReturnRateB());
+        }
+        for (Match match : matches) {
+            out.writeByte(match.getOutcome().ordinal());
+        }
+    }
+
+    private static MatchIndex readMatches(FileChannel channel, Path file) throws IOException {
+        ByteBuffer header = map(channel, 0, HEADER_SIZE);
+
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IllegalArgumentException("%s is not a columnar data file!".formatted(file));
+        }
+        int count = header.getInt();
+        ByteBuffer columns = map(channel, HEADER_SIZE, (long) count * MATCH_SIZE);
+
+        long[] mostSigBits = new long[count];
+        long[] leastSigBits = new long[count];
+        double[] returnRatesA = new double[count];
+        double[] returnRatesB = new double[count];
+
+        columns.asLongBuffer().get(mostSigBits);
+        columns.position(columns.position() + count * Long.BYTES);
+        columns.asLongBuffer().get(leastSigBits);
+        columns.position(columns.position() + count * Long.BYTES);
+        columns.asDoubleBuffer().get(returnRatesA);
+        columns.position(columns.position() + count * Double.BYTES);
+        columns.asDoubleBuffer().get(returnRatesB);
+        columns.position(columns.position() + count * Double.BYTES);
+
+        List<Match> matches = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            var id = new UUID(mostSigBits[i], leastSigBits[i]);
+
+            matches.add(new Match(id, OUTCOMES[columns.get()], returnRatesA[i], returnRatesB[i]));
+        }
+        return new MatchIndex(matches);
+    }
+
+    private static void writeBlock(DataOutput out, ActionBatch batch) throws IOException {
+        int size = batch.size();
+
+        // Every row is a parsed line, so they are counted once per block instead of per line
+        Metrics.LINES_PARSED.add(size);
+        out.writeInt(size);
+
+        for (int i = 0; i < size; i++) {
+            out.writeLong(batch.playerIdMostSigBits[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeLong(batch.playerIdLeastSigBits[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeByte(batch.actionTypes[i].ordinal());
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeInt(batch.coinAmounts[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeInt(batch.matchIndexes[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            out.writeByte(batch.betSides[i] == null ? NO_BET_SIDE : batch.betSides[i].ordinal());
+        }
+    }
+
+    private static void readBlock(ByteBuffer block, int rowCount, int firstQueueNr, ActionBatch batch) {
+        batch.clear();
+
+        block.asLongBuffer().get(batch.playerIdMostSigBits, 0, rowCount);
+        block.position(block.position() + rowCount * Long.BYTES);
+        block.asLongBuffer().get(batch.playerIdLeastSigBits, 0, rowCount);
+        block.position(block.position() + rowCount * Long.BYTES);
+
+        for (int i = 0; i < rowCount; i++) {
+            batch.addRow();
+            batch.queueNrs[i] = firstQueueNr + i;
+            batch.actionTypes[i] = ACTION_TYPES[block.get()];
+        }
+        block.asIntBuffer().get(batch.coinAmounts, 0, rowCount);
+        block.position(block.position() + rowCount * Integer.BYTES);
+        block.asIntBuffer().get(batch.matchIndexes, 0, rowCount);
+        block.position(block.position() + rowCount * Integer.BYTES);
+
+        for (int i = 0; i < rowCount; i++) {
+            byte betSide = block.get();
+
+            batch.betSides[i] = betSide == NO_BET_SIDE ? null : BET_SIDES[betSide];
+        }
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        if (position + size > channel.size()) {
+            throw new EOFException("File ends at byte %d, before byte %d".formatted(channel.size(), position + size));
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+}
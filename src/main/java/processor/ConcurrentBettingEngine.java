@@ -0,0 +1,147 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+import domain.MatchIndex;
+import domain.Player;
+import domain.PlayerActionEvent;
+import domain.ProcessingResult;
+import metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies player actions from many threads at once, with the same rules as {@link BettingDataProcessor}.
+ * Players are striped over shards by id, and every shard is a processor with its own lock, so threads
+ * only wait for each other when their players share a shard.
+ * <p>
+ * Queue numbers come from one atomic counter. A number is taken while holding the shard lock, so the
+ * actions of a player always have increasing queue numbers in the order they were applied.
+ */
+public class ConcurrentBettingEngine {
+
+    private final MatchIndex matches;
+    private final BettingDataProcessor[] shards;
+    private final AtomicInteger actionQueueNr = new AtomicInteger();
+
+    private final ThreadLocal<ActionParser> parsers;
+    private final ThreadLocal<ActionBatch> parsedLines = ThreadLocal.withInitial(() -> new ActionBatch(1));
+
+    public ConcurrentBettingEngine(MatchIndex matches) {
+        this(matches, ProcessingMode.SUMMARY, 4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public ConcurrentBettingEngine(MatchIndex matches, ProcessingMode mode, int shardCount) {
+        this.matches = matches;
+        this.shards = new BettingDataProcessor[shardCount];
+        this.parsers = ThreadLocal.withInitial(() -> new ActionParser(matches));
+
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new BettingDataProcessor(mode, matches);
+        }
+    }
+
+    /**
+     * Applies the action like {@link BettingEngine#apply(PlayerActionEvent)}
+     */
+    public void apply(PlayerActionEvent event) {
+        int matchIndex = ActionBatch.NO_MATCH;
+
+        if (event.getActionType() == ActionType.BET) {
+            if (event.getMatchId() == null || event.getBetSide() == null) {
+                throw new IllegalArgumentException("Bet %s must have a match and a bet side!".formatted(event));
+            }
+            matchIndex = ActionParser.indexOfMatch(matches, event.getMatchId());
+        }
+        UUID playerId = event.getPlayerId();
+
+        apply(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits(), event.getActionType(),
+                event.getCoinAmount(), matchIndex, event.getBetSide());
+    }
+
+    /**
+     * Parses and applies a line of player data. Lines are parsed before taking the shard lock.
+     */
+    public void processLine(CharSequence line) {
+        if (line.length() == 0) {
+            return;
+        }
+        ActionBatch parsed = parsedLines.get();
+
+        parsed.clear();
+        parsers.get().parse(line, 0, parsed);
+        Metrics.LINES_PARSED.increment();
+
+        apply(parsed.playerIdMostSigBits[0], parsed.playerIdLeastSigBits[0], parsed.actionTypes[0],
+                parsed.coinAmounts[0], parsed.matchIndexes[0], parsed.betSides[0]);
+    }
+
+    public long getBalance(UUID playerId) {
+        BettingDataProcessor shard = getShard(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+
+        synchronized (shard) {
+            return shard.getBalance(playerId);
+        }
+    }
+
+    public boolean isLegitimate(UUID playerId) {
+        BettingDataProcessor shard = getShard(playerId.getMostSignificantBits(), playerId.getLeastSignificantBits());
+
+        synchronized (shard) {
+            return shard.isLegitimate(playerId);
+        }
+    }
+
+    /**
+     * Returns the sum of the shards' host balance changes. Shards are read one at a time,
+     * so actions applied meanwhile may only be partly included.
+     */
+    public long getHostBalanceChange() {
+        long hostBalanceChange = 0;
+
+        for (BettingDataProcessor shard : shards) {
+            synchronized (shard) {
+                hostBalanceChange += shard.getHostBalanceChange();
+            }
+        }
+        return hostBalanceChange;
+    }
+
+    /**
+     * Returns the players and host balance change of all shards. Shards are read one at a time,
+     * so this should be called once ingestion has stopped for a consistent result.
+     */
+    public ProcessingResult createResult() {
+        long hostBalanceChange = 0;
+        List<Player> players = new ArrayList<>();
+
+        for (BettingDataProcessor shard : shards) {
+            synchronized (shard) {
+                ProcessingResult result = shard.createResult();
+
+                hostBalanceChange += result.getHostBalanceChange();
+                players.addAll(result.getPlayers());
+            }
+        }
+        return new ProcessingResult(hostBalanceChange, players);
+    }
+
+    private void apply(long playerIdMostSigBits, long playerIdLeastSigBits, ActionType actionType,
+                       int coinAmount, int matchIndex, BetSide betSide) {
+        BettingDataProcessor shard = getShard(playerIdMostSigBits, playerIdLeastSigBits);
+
+        synchronized (shard) {
+            shard.processAction(playerIdMostSigBits, playerIdLeastSigBits, actionQueueNr.getAndIncrement(),
+                    actionType, coinAmount, matchIndex, betSide);
+        }
+    }
+
+    private BettingDataProcessor getShard(long mostSigBits, long leastSigBits) {
+        long hash = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+
+        return shards[(int) ((hash >>> 32) % shards.length)];
+    }
+}
@@ -1,41 +1,43 @@
 package processor;
 
 import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import metrics.Metrics;
+import util.CsvTokenizer;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.UUID;
 
 public class MatchDataProcessor {
 
-    public static List<Match> processMatchData(String data) {
-        List<Match> matches = new ArrayList<>();
+    private static final Outcome[] OUTCOMES = Outcome.values();
+
+    public static MatchIndex processMatchData(String data) {
+        long start = System.nanoTime();
+        var matches = new MatchIndex();
+        var tokenizer = new CsvTokenizer();
 
         for (String line : data.split("\n")) {
             if (line.isEmpty()) {
                 continue;
             }
-            matches.add(createMatch(line));
+            matches.add(createMatch(tokenizer.tokenize(line)));
         }
+        Metrics.MATCH_DATA_PROCESSING.recordSince(start);
+
         return matches;
     }
 
-    private static Match createMatch(String line) {
-        String[] values = line.split(",");
-
-        UUID id = UUID.fromString(values[0]);
-        String outcome = values[3];
-        double returnRateA = Double.parseDouble(values[1]);
-        double returnRateB = Double.parseDouble(values[2]);
-
-        return validateMatch(new Match(id, outcome, returnRateA, returnRateB));
-    }
+    private static Match createMatch(CsvTokenizer values) {
+        UUID id = values.parseUuid(0);
+        Outcome outcome = values.getEnum(3, OUTCOMES);
+        double returnRateA = values.parseDouble(1);
+        double returnRateB = values.parseDouble(2);
 
-    private static Match validateMatch(Match match) {
-        if (!List.of("A", "B", "DRAW").contains(match.getOutcome())) {
+        if (outcome == null) {
             throw new IllegalArgumentException("%s is not a valid match outcome!"
-                    .formatted(match.getOutcome()));
+                    .formatted(values.getString(3)));
         }
-        return match;
+        return new Match(id, outcome, returnRateA, returnRateB);
     }
 }
@@ -0,0 +1,194 @@
+package processor;
+
+import domain.MatchIndex;
+import domain.Player;
+import domain.ProcessingResult;
+import metrics.Metrics;
+import util.CsvTokenizer;
+import util.FileUtil;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Processes betting data on several threads. Actions of different players are independent,
+ * so lines are sharded by player id and every shard is processed by its own
+ * {@link BettingDataProcessor} with the same rules as a sequential run.
+ * <p>
+ * Lines are read in batches on the calling thread, which also assigns the queue numbers,
+ * so they keep the same global order as in a sequential run. A batch is processed while
+ * the next one is read, and shards of a batch only start after the previous batch is done,
+ * which keeps the order of every player's actions. A processor runs one input at a time.
+ */
+public class ParallelBettingDataProcessor {
+
+    private static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+
+    private final ProcessingMode mode;
+    private final ForkJoinPool pool;
+    private final int batchSize;
+
+    private final CsvTokenizer tokenizer = new CsvTokenizer();
+    private BettingDataProcessor[] shards;
+    private ShardTask[] batch;
+    private int batchLineCount;
+    private ForkJoinTask<?> pendingBatch;
+    private int actionQueueNr;
+    private long startNanos;
+
+    public ParallelBettingDataProcessor() {
+        this(ProcessingMode.FULL);
+    }
+
+    public ParallelBettingDataProcessor(ProcessingMode mode) {
+        this(mode, ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    public ParallelBettingDataProcessor(ProcessingMode mode, ForkJoinPool pool, int batchSize) {
+        this.mode = mode;
+        this.pool = pool;
+        this.batchSize = batchSize;
+    }
+
+    public ProcessingResult processBettingData(String playerData, MatchIndex matches) {
+        return processBettingData(new StringReader(playerData), matches);
+    }
+
+    /**
+     * Processes a memory-mapped player data file. Lines are copied out of the mapped
+     * file, as they are processed after the reader has moved on.
+     */
+    public ProcessingResult processBettingData(Path playerData, MatchIndex matches) {
+        startProcessing(matches);
+
+        FileUtil.readMappedFile(playerData, line -> addLine(line.toString()));
+
+        return finishProcessing();
+    }
+
+    /**
+     * Processes player data from the reader. The reader is not closed.
+     */
+    public ProcessingResult processBettingData(Reader playerData, MatchIndex matches) {
+        startProcessing(matches);
+
+        FileUtil.readLines(playerData, this::addLine);
+
+        return finishProcessing();
+    }
+
+    private void startProcessing(MatchIndex matches) {
+        startNanos = System.nanoTime();
+        shards = new BettingDataProcessor[pool.getParallelism()];
+
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new BettingDataProcessor(mode, matches);
+        }
+        batch = createBatch();
+        batchLineCount = 0;
+        pendingBatch = null;
+        actionQueueNr = 0;
+    }
+
+    private void addLine(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        tokenizer.tokenize(line);
+
+        int shard = getShard(tokenizer.parseUuidMostSignificantBits(0), tokenizer.parseUuidLeastSignificantBits(0));
+
+        batch[shard].add(line, actionQueueNr++);
+
+        if (++batchLineCount == batchSize) {
+            submitBatch();
+        }
+    }
+
+    private ProcessingResult finishProcessing() {
+        submitBatch();
+        pendingBatch.join();
+
+        long hostBalanceChange = 0;
+        List<Player> players = new ArrayList<>();
+
+        for (BettingDataProcessor shard : shards) {
+            ProcessingResult result = shard.createResult();
+
+            hostBalanceChange += result.getHostBalanceChange();
+            players.addAll(result.getPlayers());
+        }
+        Metrics.PLAYER_DATA_PROCESSING.recordSince(startNanos);
+
+        return new ProcessingResult(hostBalanceChange, players);
+    }
+
+    private void submitBatch() {
+        List<ShardTask> tasks = Arrays.stream(batch)
+                .filter(task -> task.size > 0)
+                .toList();
+
+        if (pendingBatch != null) {
+            pendingBatch.join();
+        }
+        pendingBatch = pool.submit(() -> ForkJoinTask.invokeAll(tasks));
+        batch = createBatch();
+        batchLineCount = 0;
+    }
+
+    private ShardTask[] createBatch() {
+        var tasks = new ShardTask[shards.length];
+
+        for (int i = 0; i < shards.length; i++) {
+            tasks[i] = new ShardTask(shards[i]);
+        }
+        return tasks;
+    }
+
+    private int getShard(long mostSigBits, long leastSigBits) {
+        long hash = (mostSigBits ^ leastSigBits) * 0x9E3779B97F4A7C15L;
+
+        return (int) ((hash >>> 32) % shards.length);
+    }
+
+    /**
+     * Lines of one batch that belong to a shard, with their queue numbers
+     */
+    private static class ShardTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final BettingDataProcessor shard;
+        private String[] lines = new String[16];
+        private int[] queueNrs = new int[16];
+        private int size;
+
+        private ShardTask(BettingDataProcessor shard) {
+            this.shard = shard;
+        }
+
+        private void add(String line, int queueNr) {
+            if (size == lines.length) {
+                lines = Arrays.copyOf(lines, size * 2);
+                queueNrs = Arrays.copyOf(queueNrs, size * 2);
+            }
+            lines[size] = line;
+            queueNrs[size] = queueNr;
+            size++;
+        }
+
+        @Override
+        protected void compute() {
+            for (int i = 0; i < size; i++) {
+                shard.processLine(lines[i], queueNrs[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package processor;
+
+import domain.MatchIndex;
+import domain.ProcessingResult;
+import metrics.Metrics;
+import metrics.ParseBatchEvent;
+import util.FileUtil;
+
+import java.io.Reader;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Processes betting data in three overlapping stages connected by bounded queues:
+ * reading lines, parsing them into {@link ActionBatch}es and applying the batches with
+ * the same rules as {@link BettingDataProcessor}. Reading and parsing run on their own
+ * threads and block when the next stage falls behind, so at most a few batches are
+ * held in memory at any time.
+ */
+public class PipelinedBettingDataProcessor {
+
+    private static final int DEFAULT_BATCH_SIZE = 4096;
+    private static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final String STAGE_THREAD_NAME = "pipeline-stage";
+
+    // Marks the end of the input in both queues
+    private static final String[] END_OF_LINES = new String[0];
+    private static final ActionBatch END_OF_ACTIONS = new ActionBatch(0);
+
+    private final ProcessingMode mode;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public PipelinedBettingDataProcessor() {
+        this(ProcessingMode.FULL);
+    }
+
+    public PipelinedBettingDataProcessor(ProcessingMode mode) {
+        this(mode, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public PipelinedBettingDataProcessor(ProcessingMode mode, int batchSize, int queueCapacity) {
+        this.mode = mode;
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Processes player data from the reader. The reader is not closed.
+     */
+    public ProcessingResult processBettingData(Reader playerData, MatchIndex matches) {
+        return process(lineConsumer -> FileUtil.readLines(playerData, lineConsumer), matches);
+    }
+
+    /**
+     * Processes a memory-mapped player data file
+     */
+    public ProcessingResult processBettingData(Path playerData, MatchIndex matches) {
+        return process(lineConsumer -> FileUtil.readMappedFile(playerData,
+                line -> lineConsumer.accept(line.toString())), matches);
+    }
+
+    private ProcessingResult process(Consumer<Consumer<String>> lineReader, MatchIndex matches) {
+        BlockingQueue<String[]> lines = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<ActionBatch> actions = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(2, PipelinedBettingDataProcessor::createStageThread);
+        long start = System.nanoTime();
+
+        try {
+            Future<?> reading = executor.submit(() -> readLines(lineReader, lines));
+            Future<?> parsing = executor.submit(() -> parseLines(lines, actions, matches));
+
+            var processor = new BettingDataProcessor(mode, matches);
+
+            for (ActionBatch batch = take(actions, parsing, reading); batch != END_OF_ACTIONS;
+                 batch = take(actions, parsing, reading)) {
+                processor.applyBatch(batch);
+            }
+            getResult(reading);
+
+            ProcessingResult result = processor.createResult();
+
+            Metrics.PLAYER_DATA_PROCESSING.recordSince(start);
+
+            return result;
+
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the lines in batches. The end marker is only queued when all lines were read,
+     * as a failed stage is noticed through its future instead.
+     */
+    private Void readLines(Consumer<Consumer<String>> lineReader, BlockingQueue<String[]> lines) {
+        var batch = new LineBatch(batchSize);
+
+        lineReader.accept(line -> {
+            if (!line.isEmpty() && batch.add(line)) {
+                put(lines, batch.take());
+            }
+        });
+        if (batch.size > 0) {
+            put(lines, batch.take());
+        }
+        put(lines, END_OF_LINES);
+
+        return null;
+    }
+
+    private Void parseLines(BlockingQueue<String[]> lines, BlockingQueue<ActionBatch> actions, MatchIndex matches)
+            throws InterruptedException {
+        var parser = new ActionParser(matches);
+        int actionQueueNr = 0;
+
+        for (String[] batch = lines.take(); batch != END_OF_LINES; batch = lines.take()) {
+            var parsed = new ActionBatch(batch.length);
+            var event = new ParseBatchEvent();
+
+            event.begin();
+
+            for (String line : batch) {
+                parser.parse(line, actionQueueNr++, parsed);
+            }
+            Metrics.LINES_PARSED.add(batch.length);
+
+            if (event.shouldCommit()) {
+                event.lineCount = batch.length;
+                event.commit();
+            }
+            actions.put(parsed);
+        }
+        actions.put(END_OF_ACTIONS);
+
+        return null;
+    }
+
+    /**
+     * Takes the next batch, failing if one of the stages producing it fails
+     */
+    private static ActionBatch take(BlockingQueue<ActionBatch> queue, Future<?>... producers) {
+        try {
+            ActionBatch batch;
+
+            while ((batch = queue.poll(100, TimeUnit.MILLISECONDS)) == null) {
+                for (Future<?> producer : producers) {
+                    if (producer.isDone()) {
+                        getResult(producer);
+                    }
+                }
+            }
+            return batch;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Processing was interrupted!", e);
+        }
+    }
+
+    /**
+     * Creates a daemon thread, so a stage that is stuck can't keep the JVM running
+     */
+    private static Thread createStageThread(Runnable task) {
+        var thread = new Thread(task, STAGE_THREAD_NAME);
+
+        thread.setDaemon(true);
+
+        return thread;
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Processing was interrupted!", e);
+        }
+    }
+
+    private static void getResult(Future<?> future) {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Processing was interrupted!", e);
+        }
+    }
+
+    private static class LineBatch {
+
+        private final String[] lines;
+        private int size;
+
+        private LineBatch(int capacity) {
+            lines = new String[capacity];
+        }
+
+        /**
+         * Adds a line and returns whether the batch is full
+         */
+        private boolean add(String line) {
+            lines[size++] = line;
+
+            return size == lines.length;
+        }
+
+        private String[] take() {
+            String[] batch = Arrays.copyOf(lines, size);
+
+            size = 0;
+
+            return batch;
+        }
+    }
+}
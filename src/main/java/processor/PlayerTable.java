@@ -0,0 +1,293 @@
+package processor;
+
+import domain.ActionType;
+import domain.BetSide;
+import domain.PlayerAction;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Player state stored column by column and looked up by the two longs of the player id.
+ * Players get a dense index in the order they are added, which is used to read and
+ * update their state. Ids are found with open addressing, so a lookup doesn't need
+ * a {@link UUID} object and a player costs tens of bytes instead of a few objects.
+ */
+class PlayerTable {
+
+    static final int NOT_FOUND = -1;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final ActionType[] ACTION_TYPES = ActionType.values();
+    private static final BetSide[] BET_SIDES = BetSide.values();
+
+    // Player index + 1 for every used slot, 0 for empty slots
+    private int[] slots = new int[16];
+
+    private long[] idMostSigBits = new long[8];
+    private long[] idLeastSigBits = new long[8];
+    private long[] balances = new long[8];
+    private boolean[] isIllegitimate = new boolean[8];
+    private int[] legalBetCounts = new int[8];
+    private int[] betsWonCounts = new int[8];
+    private long[] betBalanceChanges = new long[8];
+    private PlayerAction[] firstIllegalActions = new PlayerAction[8];
+    private List<List<PlayerAction>> actions;
+
+    private int size;
+
+    /**
+     * @param retainActions whether every action is kept, or only the first illegal one
+     */
+    PlayerTable(boolean retainActions) {
+        if (retainActions) {
+            actions = new ArrayList<>();
+        }
+    }
+
+    /**
+     * Returns the index of the player, adding the player if it doesn't exist yet
+     */
+    int getOrAdd(long mostSigBits, long leastSigBits) {
+        int mask = slots.length - 1;
+        int slot = hash(mostSigBits, leastSigBits) & mask;
+
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+
+            if (idMostSigBits[index] == mostSigBits && idLeastSigBits[index] == leastSigBits) {
+                return index;
+            }
+        }
+        int index = add(mostSigBits, leastSigBits);
+
+        slots[slot] = index + 1;
+
+        if (size > slots.length * LOAD_FACTOR) {
+            resizeSlots();
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the player, or {@link #NOT_FOUND}
+     */
+    int indexOf(long mostSigBits, long leastSigBits) {
+        int mask = slots.length - 1;
+
+        for (int slot = hash(mostSigBits, leastSigBits) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int index = slots[slot] - 1;
+
+            if (idMostSigBits[index] == mostSigBits && idLeastSigBits[index] == leastSigBits) {
+                return index;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    int size() {
+        return size;
+    }
+
+    UUID getId(int index) {
+        return new UUID(idMostSigBits[index], idLeastSigBits[index]);
+    }
+
+    long getBalance(int index) {
+        return balances[index];
+    }
+
+    void addToBalance(int index, long change) {
+        balances[index] += change;
+    }
+
+    void setBalance(int index, long balance) {
+        balances[index] = balance;
+    }
+
+    boolean isLegitimate(int index) {
+        return !isIllegitimate[index];
+    }
+
+    void setIllegitimate(int index) {
+        isIllegitimate[index] = true;
+    }
+
+    int getLegalBetCount(int index) {
+        return legalBetCounts[index];
+    }
+
+    int getBetsWonCount(int index) {
+        return betsWonCounts[index];
+    }
+
+    long getBetBalanceChange(int index) {
+        return betBalanceChanges[index];
+    }
+
+    void addLegalBet(int index, boolean isWon, int balanceChange) {
+        legalBetCounts[index]++;
+        betsWonCounts[index] += isWon ? 1 : 0;
+        betBalanceChanges[index] += balanceChange;
+    }
+
+    PlayerAction getFirstIllegalAction(int index) {
+        return firstIllegalActions[index];
+    }
+
+    /**
+     * Keeps the action if the player has no illegal actions yet
+     */
+    void addIllegalAction(int index, PlayerAction action) {
+        if (firstIllegalActions[index] == null) {
+            firstIllegalActions[index] = action;
+        }
+    }
+
+    boolean isRetainingActions() {
+        return actions != null;
+    }
+
+    /**
+     * Returns all actions of the player, if actions are retained
+     */
+    List<PlayerAction> getActions(int index) {
+        return actions.get(index);
+    }
+
+    void addAction(int index, PlayerAction action) {
+        actions.get(index).add(action);
+    }
+
+    /**
+     * Writes the state of every player in order of index. Retained actions are not written,
+     * apart from the first illegal action.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+
+        for (int index = 0; index < size; index++) {
+            out.writeLong(idMostSigBits[index]);
+            out.writeLong(idLeastSigBits[index]);
+            out.writeLong(balances[index]);
+            out.writeBoolean(isIllegitimate[index]);
+            out.writeInt(legalBetCounts[index]);
+            out.writeInt(betsWonCounts[index]);
+            out.writeLong(betBalanceChanges[index]);
+            writeAction(out, firstIllegalActions[index]);
+        }
+    }
+
+    /**
+     * Adds the players written by {@link #write(DataOutput)} to an empty table, so they get the same indexes
+     */
+    void read(DataInput in) throws IOException {
+        if (size > 0) {
+            throw new IllegalStateException("Players can only be read into an empty table!");
+        }
+        int count = in.readInt();
+
+        for (int i = 0; i < count; i++) {
+            int index = getOrAdd(in.readLong(), in.readLong());
+
+            balances[index] = in.readLong();
+            isIllegitimate[index] = in.readBoolean();
+            legalBetCounts[index] = in.readInt();
+            betsWonCounts[index] = in.readInt();
+            betBalanceChanges[index] = in.readLong();
+            firstIllegalActions[index] = readAction(in);
+        }
+    }
+
+    private int add(long mostSigBits, long leastSigBits) {
+        if (size == idMostSigBits.length) {
+            grow(size * 2);
+        }
+        idMostSigBits[size] = mostSigBits;
+        idLeastSigBits[size] = leastSigBits;
+
+        if (actions != null) {
+            actions.add(new ArrayList<>());
+        }
+        return size++;
+    }
+
+    private void grow(int capacity) {
+        idMostSigBits = Arrays.copyOf(idMostSigBits, capacity);
+        idLeastSigBits = Arrays.copyOf(idLeastSigBits, capacity);
+        balances = Arrays.copyOf(balances, capacity);
+        isIllegitimate = Arrays.copyOf(isIllegitimate, capacity);
+        legalBetCounts = Arrays.copyOf(legalBetCounts, capacity);
+        betsWonCounts = Arrays.copyOf(betsWonCounts, capacity);
+        betBalanceChanges = Arrays.copyOf(betBalanceChanges, capacity);
+        firstIllegalActions = Arrays.copyOf(firstIllegalActions, capacity);
+    }
+
+    private void resizeSlots() {
+        slots = new int[slots.length * 2];
+
+        int mask = slots.length - 1;
+
+        for (int index = 0; index < size; index++) {
+            int slot = hash(idMostSigBits[index], idLeastSigBits[index]) & mask;
+
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = index + 1;
+        }
+    }
+
+    private static void writeAction(DataOutput out, PlayerAction action) throws IOException {
+        out.writeBoolean(action != null);
+
+        if (action == null) {
+            return;
+        }
+        out.writeInt(action.getQueueNr());
+        out.writeByte(action.getActionType().ordinal());
+        out.writeInt(action.getCoinAmount());
+        out.writeInt(action.getPlayerBalanceChange());
+        out.writeBoolean(action.isLegalAction());
+        out.writeBoolean(action.getMatchId() != null);
+
+        if (action.getMatchId() != null) {
+            out.writeLong(action.getMatchId().getMostSignificantBits());
+            out.writeLong(action.getMatchId().getLeastSignificantBits());
+        }
+        out.writeByte(action.getBetSide() == null ? -1 : action.getBetSide().ordinal());
+        out.writeBoolean(action.isBetWon());
+    }
+
+    private static PlayerAction readAction(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        var action = new PlayerAction(in.readInt(), ACTION_TYPES[in.readByte()], in.readInt());
+
+        action.setPlayerBalanceChange(in.readInt());
+        action.setLegalAction(in.readBoolean());
+
+        if (in.readBoolean()) {
+            action.setMatchId(new UUID(in.readLong(), in.readLong()));
+        }
+        byte betSide = in.readByte();
+
+        action.setBetSide(betSide < 0 ? null : BET_SIDES[betSide]);
+        action.setBetWon(in.readBoolean());
+
+        return action;
+    }
+
+    private static int hash(long mostSigBits, long leastSigBits) {
+        long hash = (mostSigBits * 31 + leastSigBits) * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ hash >>> 32);
+    }
+}
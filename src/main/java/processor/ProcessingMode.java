@@ -0,0 +1,24 @@
+package processor;
+
+/**
+ * Defines how much of each player's history is kept in memory while processing
+ */
+public enum ProcessingMode {
+
+    /**
+     * Every player action is kept
+     */
+    FULL,
+
+    /**
+     * Only the player aggregates and the earliest illegal action are kept,
+     * so memory scales with the number of players instead of actions
+     */
+    SUMMARY,
+
+    /**
+     * Every player action is kept in fixed-width records outside the heap and read back
+     * on access, so the heap scales with the number of players like in {@link #SUMMARY}
+     */
+    OFF_HEAP
+}
@@ -0,0 +1,186 @@
+package util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Splits a comma separated line into fields without creating a String per field.
+ * Numbers and UUIDs are parsed in place from the underlying characters.
+ * A tokenizer is meant to be reused for every line and is not thread safe.
+ */
+public class CsvTokenizer {
+
+    private static final char SEPARATOR = ',';
+    private static final int UUID_LENGTH = 36;
+
+    private CharSequence line;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fieldCount;
+
+    public CsvTokenizer tokenize(CharSequence line) {
+        this.line = line;
+        fieldCount = 0;
+
+        int start = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == SEPARATOR) {
+                addField(start, i);
+                start = i + 1;
+            }
+        }
+        addField(start, line.length());
+
+        return this;
+    }
+
+    public int length(int field) {
+        Objects.checkIndex(field, fieldCount);
+
+        return ends[field] - starts[field];
+    }
+
+    public boolean fieldEquals(int field, String value) {
+        if (length(field) != value.length()) {
+            return false;
+        }
+        int start = starts[field];
+
+        for (int i = 0; i < value.length(); i++) {
+            if (line.charAt(start + i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getString(int field) {
+        Objects.checkIndex(field, fieldCount);
+
+        return line.subSequence(starts[field], ends[field]).toString();
+    }
+
+    /**
+     * Returns the constant whose name equals the field, or null when there is none
+     */
+    public <E extends Enum<E>> E getEnum(int field, E[] constants) {
+        for (E constant : constants) {
+            if (fieldEquals(field, constant.name())) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses the field as a decimal int, accepting the same input as {@link Integer#parseInt(String)}.
+     */
+    public int parseInt(int field) {
+        int length = length(field);
+        int start = starts[field];
+        int end = start + length;
+
+        if (start == end) {
+            throw invalidNumber(field);
+        }
+        boolean isNegative = line.charAt(start) == '-';
+        int limit = isNegative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int i = isNegative || line.charAt(start) == '+' ? start + 1 : start;
+
+        if (i == end) {
+            throw invalidNumber(field);
+        }
+        // Accumulate negatively, as the negative range is larger than the positive one
+        int result = 0;
+
+        for (; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), 10);
+
+            if (digit < 0 || result < limit / 10) {
+                throw invalidNumber(field);
+            }
+            result *= 10;
+
+            if (result < limit + digit) {
+                throw invalidNumber(field);
+            }
+            result -= digit;
+        }
+        return isNegative ? result : -result;
+    }
+
+    /**
+     * Parses the field as a double. Return rates are only parsed once per match,
+     * so this delegates to {@link Double#parseDouble(String)}.
+     */
+    public double parseDouble(int field) {
+        return Double.parseDouble(getString(field));
+    }
+
+    public UUID parseUuid(int field) {
+        return new UUID(parseUuidMostSignificantBits(field), parseUuidLeastSignificantBits(field));
+    }
+
+    public long parseUuidMostSignificantBits(int field) {
+        if (!isCanonicalUuid(field)) {
+            return UUID.fromString(getString(field)).getMostSignificantBits();
+        }
+        int start = starts[field];
+
+        return parseHex(field, start, start + 8) << 32
+                | parseHex(field, start + 9, start + 13) << 16
+                | parseHex(field, start + 14, start + 18);
+    }
+
+    public long parseUuidLeastSignificantBits(int field) {
+        if (!isCanonicalUuid(field)) {
+            return UUID.fromString(getString(field)).getLeastSignificantBits();
+        }
+        int start = starts[field];
+
+        return parseHex(field, start + 19, start + 23) << 48
+                | parseHex(field, start + 24, start + 36);
+    }
+
+    private boolean isCanonicalUuid(int field) {
+        if (length(field) != UUID_LENGTH) {
+            return false;
+        }
+        int start = starts[field];
+
+        return line.charAt(start + 8) == '-'
+                && line.charAt(start + 13) == '-'
+                && line.charAt(start + 18) == '-'
+                && line.charAt(start + 23) == '-';
+    }
+
+    private long parseHex(int field, int start, int end) {
+        long result = 0;
+
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(line.charAt(i), 16);
+
+            if (digit < 0) {
+                throw new IllegalArgumentException("Invalid UUID string: %s".formatted(getString(field)));
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+
+    private void addField(int start, int end) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        fieldCount++;
+    }
+
+    private NumberFormatException invalidNumber(int field) {
+        return new NumberFormatException("For input string: \"%s\"".formatted(getString(field)));
+    }
+}
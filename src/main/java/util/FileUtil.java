@@ -1,43 +1,262 @@
 package util;
 
+import metrics.Metrics;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class FileUtil {
 
     private static final String WRITE_PATH = "src/main/java/main/";
+    private static final int MAPPED_REGION_SIZE = 1 << 30;
 
     public static String readResourceFile(String fileName) {
+        return readResourceFile(fileName, FileUtil::readAll);
+    }
+
+    /**
+     * Opens a resource file and passes its reader to the given function, so the file
+     * can be processed as a stream instead of being read into memory at once.
+     */
+    public static <T> T readResourceFile(String fileName, Function<Reader, T> function) {
         try (InputStream is = Thread
                 .currentThread()
                 .getContextClassLoader()
                 .getResourceAsStream(fileName)) {
 
-            return readInputStream(is);
+            return function.apply(new BufferedReader(new InputStreamReader(new CountingInputStream(is),
+                    StandardCharsets.UTF_8)));
 
         } catch (IOException e) {
             throw new RuntimeException("Could not read file %s!".formatted(fileName));
         }
     }
 
+    /**
+     * Reads a file like {@link #readResourceFile(String)}, so lines are joined with \n whatever they ended with
+     */
+    public static String readFile(Path path) {
+        try (var reader = new InputStreamReader(new CountingInputStream(Files.newInputStream(path)),
+                StandardCharsets.UTF_8)) {
+            return readAll(reader);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s!".formatted(path), e);
+        }
+    }
+
+    /**
+     * Passes every line of the reader to the consumer. The reader is not closed.
+     */
+    public static void readLines(Reader reader, Consumer<String> lineConsumer) {
+        var bufferedReader = reader instanceof BufferedReader buffered
+                ? buffered
+                : new BufferedReader(reader);
+
+        try {
+            String line;
+
+            while ((line = bufferedReader.readLine()) != null) {
+                lineConsumer.accept(line);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read lines!", e);
+        }
+    }
+
+    public static void readMappedFile(Path path, Consumer<CharSequence> lineConsumer) {
+        readMappedFile(path, MAPPED_REGION_SIZE, lineConsumer);
+    }
+
+    /**
+     * Memory-maps an ASCII file and passes every line to the consumer without creating a String
+     * per line. The line is a reused view of the mapped bytes, so it is only valid until the
+     * consumer returns. Lines end with \n, and a \r before it is stripped.
+     * Files larger than the region size are mapped one region at a time, so a single line
+     * can't be longer than the region size.
+     */
+    public static void readMappedFile(Path path, int regionSize, Consumer<CharSequence> lineConsumer) {
+        readMappedFile(path, 0, regionSize, true, lineConsumer);
+    }
+
+    /**
+     * Reads the lines of a memory-mapped file like {@link #readMappedFile(Path, Consumer)}, starting at
+     * the given byte offset, which must be the start of a line. An unterminated line at the end of the
+     * file is only read if readsUnterminatedLine is true, as it may still be written to.
+     * Returns the byte offset after the last line read.
+     */
+    public static long readMappedFile(Path path, long offset, boolean readsUnterminatedLine,
+                                      Consumer<CharSequence> lineConsumer) {
+        return readMappedFile(path, offset, MAPPED_REGION_SIZE, readsUnterminatedLine, lineConsumer);
+    }
+
+    public static long readMappedFile(Path path, long offset, int regionSize, boolean readsUnterminatedLine,
+                                      Consumer<CharSequence> lineConsumer) {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var line = new AsciiCharSequence();
+            long fileSize = channel.size();
+            long regionStart = offset;
+
+            while (regionStart < fileSize) {
+                int size = (int) Math.min(regionSize, fileSize - regionStart);
+                boolean isLastRegion = regionStart + size == fileSize;
+
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, regionStart, size);
+                int consumed = readMappedLines(buffer, size, isLastRegion && readsUnterminatedLine, line, lineConsumer);
+
+                if (consumed == 0 && isLastRegion && !readsUnterminatedLine) {
+                    break;
+                } else if (consumed == 0) {
+                    throw new IOException("Line at byte %d is longer than %d bytes".formatted(regionStart, regionSize));
+                }
+                regionStart += consumed;
+            }
+            Metrics.BYTES_READ.add(regionStart - offset);
+
+            return regionStart;
+
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read file %s!".formatted(path), e);
+        }
+    }
+
     public static void writeToFile(String text, String fileName) {
+        writeToFile(fileName, writer -> {
+            try {
+                writer.write(text);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Opens a buffered writer for the file and passes it to the consumer, so text
+     * can be streamed to the file instead of being built in memory first
+     */
+    public static void writeToFile(String fileName, Consumer<Writer> writerConsumer) {
         File file = new File(WRITE_PATH + fileName);
 
-        try (var writer = new FileWriter(file)) {
+        try (var writer = createWriter(new FileOutputStream(file))) {
 
-            writer.write(text);
+            writerConsumer.accept(writer);
 
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             throw new RuntimeException("Could not write to file %s in path %s!".formatted(fileName, WRITE_PATH));
         }
     }
 
-    private static String readInputStream(InputStream is) {
-        var isReader = new InputStreamReader(is, StandardCharsets.UTF_8);
+    /**
+     * Writes to a file at the given path, creating its parent directories if needed
+     */
+    public static void writeToFile(Path path, Consumer<Writer> writerConsumer) {
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (var writer = createWriter(Files.newOutputStream(path))) {
+                writerConsumer.accept(writer);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new RuntimeException("Could not write to file %s!".formatted(path), e);
+        }
+    }
+
+    /**
+     * Passes every complete line in the buffer to the consumer and returns the number of bytes read.
+     * An unterminated line at the end is only read if it's the end of the file.
+     */
+    private static int readMappedLines(ByteBuffer buffer, int size, boolean isEndOfFile,
+                                       AsciiCharSequence line, Consumer<CharSequence> lineConsumer) {
+        int lineStart = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (buffer.get(i) == '\n') {
+                lineConsumer.accept(wrapLine(buffer, lineStart, i, line));
+                lineStart = i + 1;
+            }
+        }
+        if (isEndOfFile && lineStart < size) {
+            lineConsumer.accept(wrapLine(buffer, lineStart, size, line));
+            lineStart = size;
+        }
+        return lineStart;
+    }
 
-        return new BufferedReader(isReader)
+    private static AsciiCharSequence wrapLine(ByteBuffer buffer, int start, int end, AsciiCharSequence line) {
+        if (end > start && buffer.get(end - 1) == '\r') {
+            end--;
+        }
+        return line.wrap(buffer, start, end - start);
+    }
+
+    private static String readAll(Reader reader) {
+        return new BufferedReader(reader)
                 .lines()
                 .collect(Collectors.joining("\n"));
     }
+
+    private static Writer createWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(new CountingOutputStream(out), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds the bytes read from the stream to {@link Metrics#BYTES_READ}
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if (b >= 0) {
+                Metrics.BYTES_READ.increment();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+
+            if (count > 0) {
+                Metrics.BYTES_READ.add(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Adds the bytes written to the stream to {@link Metrics#BYTES_WRITTEN}
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            Metrics.BYTES_WRITTEN.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            Metrics.BYTES_WRITTEN.add(len);
+        }
+    }
 }
@@ -0,0 +1,112 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash set of non-negative longs, without boxing the values
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = -1;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] values;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        values = new long[tableSizeFor(expectedSize)];
+        Arrays.fill(values, EMPTY);
+    }
+
+    /**
+     * Adds the value and returns whether it wasn't in the set before
+     */
+    public boolean add(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("%d is negative!".formatted(value));
+        }
+        int mask = values.length - 1;
+
+        for (int i = hash(value) & mask; ; i = (i + 1) & mask) {
+            if (values[i] == value) {
+                return false;
+            } else if (values[i] == EMPTY) {
+                values[i] = value;
+
+                if (++size > values.length * LOAD_FACTOR) {
+                    resize();
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(long value) {
+        int mask = values.length - 1;
+
+        for (int i = hash(value) & mask; values[i] != EMPTY; i = (i + 1) & mask) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the values in no particular order
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+
+        for (long value : values) {
+            if (value != EMPTY) {
+                result[count++] = value;
+            }
+        }
+        return result;
+    }
+
+    private void resize() {
+        long[] oldValues = values;
+
+        values = new long[oldValues.length * 2];
+        Arrays.fill(values, EMPTY);
+
+        int mask = values.length - 1;
+
+        for (long value : oldValues) {
+            if (value != EMPTY) {
+                int i = hash(value) & mask;
+
+                while (values[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                values[i] = value;
+            }
+        }
+    }
+
+    static int hash(long value) {
+        long hash = value * 0x9E3779B97F4A7C15L;
+
+        return (int) (hash ^ hash >>> 32);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int size = 16;
+
+        while (size * LOAD_FACTOR < expectedSize) {
+            size *= 2;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,86 @@
+import domain.Match;
+import formatter.BettingDataFormatter;
+import main.BatchRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.BettingDataProcessor;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+
+public class BatchRunnerTests {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testProcessesEveryPairInDirectory() throws IOException {
+        var random = new Random(21);
+        Path input = Files.createDirectory(dir.resolve("input"));
+        Path output = dir.resolve("output");
+
+        String[] expected = new String[3];
+
+        for (int i = 0; i < expected.length; i++) {
+            List<Match> matches = createRandomMatches(random, 20);
+            String playerData = createRandomPlayerData(random, 10, 500, matches);
+
+            writePair(input.resolve("venue" + i), createMatchData(matches), playerData);
+            expected[i] = BettingDataFormatter.formatData(new BettingDataProcessor(ProcessingMode.SUMMARY)
+                    .processBettingData(playerData, matches));
+        }
+        BatchRunner.BatchSummary summary = new BatchRunner(output, 2)
+                .run(BatchRunner.findInputPairs(input));
+
+        assertEquals(3, summary.getResults().size());
+        assertEquals(0, summary.getFailedCount());
+
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], Files.readString(output.resolve("venue%d_result.txt".formatted(i))));
+        }
+    }
+
+    @Test
+    public void testReportsFailedPairs() throws IOException {
+        writePair(dir.resolve("valid"), "", "");
+        writePair(dir.resolve("invalid"), "", "not player data");
+
+        Path manifest = Files.writeString(dir.resolve("manifest.txt"), """
+                valid,valid/match_data.txt,valid/player_data.txt
+
+                invalid,invalid/match_data.txt,invalid/player_data.txt
+                """);
+
+        BatchRunner.BatchSummary summary = new BatchRunner(dir.resolve("output"), 1)
+                .run(BatchRunner.findInputPairs(manifest));
+
+        assertEquals(2, summary.getResults().size());
+        assertEquals(1, summary.getFailedCount());
+        assertTrue(summary.getResults().get(1).isFailed());
+        assertTrue(Files.exists(dir.resolve("output/valid_result.txt")));
+        assertTrue(summary.format().startsWith("Processed 2 pairs (1 failed)"));
+    }
+
+    private void writePair(Path pairDir, String matchData, String playerData) throws IOException {
+        Files.createDirectories(pairDir);
+        Files.writeString(pairDir.resolve("match_data.txt"), matchData);
+        Files.writeString(pairDir.resolve("player_data.txt"), playerData);
+    }
+
+    private String createMatchData(List<Match> matches) {
+        var builder = new StringBuilder();
+
+        for (Match match : matches) {
+            builder.append("%s,%s,%s,%s\n".formatted(
+                    match.getId(), match.getReturnRateA(), match.getReturnRateB(), match.getOutcome()));
+        }
+        return builder.toString();
+    }
+}
@@ -1,10 +1,15 @@
+import domain.BetSide;
 import domain.Match;
+import domain.Outcome;
 import domain.Player;
 import domain.ProcessingResult;
 import formatter.BettingDataFormatter;
+import formatter.ReportFilter;
 import org.junit.jupiter.api.Test;
 
+import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
 
@@ -118,6 +123,141 @@ public class BettingDataFormatterTests {
         assertEquals(expected, result);
     }
 
+    @Test
+    public void testWritesSameTextToWriter() {
+        Player p1 = getLegitimatePlayer(PLAYER1_ID);
+        Player p2 = getIllegitimatePlayer(PLAYER2_ID);
+        var data = new ProcessingResult(-39, List.of(p1, p2));
+
+        var writer = new StringWriter();
+
+        BettingDataFormatter.formatData(data, writer);
+
+        assertEquals(BettingDataFormatter.formatData(data), writer.toString());
+    }
+
+    @Test
+    public void testFormatsIdsAndNumbersLikeStringFormat() {
+        List<UUID> ids = List.of(
+                new UUID(0, 0),
+                new UUID(-1, -1),
+                new UUID(0x0000000100020003L, 0x0004000000000005L),
+                UUID.fromString(MATCH_ID));
+        List<Long> balances = List.of(0L, 7L, -2000L, Long.MIN_VALUE);
+        List<Player> players = new ArrayList<>();
+
+        for (int i = 0; i < ids.size(); i++) {
+            Player player = new Player(ids.get(i));
+
+            player.setBalance(balances.get(i));
+            players.add(player);
+        }
+        var expected = new StringBuilder();
+
+        players.stream()
+                .sorted(Comparator.comparing(Player::getId))
+                .forEach(p -> expected.append("%s %d 0,00\n".formatted(p.getId(), p.getBalance())));
+
+        expected.append("\n\n\n%d".formatted(Long.MAX_VALUE));
+
+        String result = BettingDataFormatter
+                .formatData(new ProcessingResult(Long.MAX_VALUE, players));
+
+        assertEquals(expected.toString(), result);
+    }
+
+    @Test
+    public void testFormatsWinRateWithTwoDecimals() {
+        String expected = "%s 2000 0,14\n%s 2000 1,00\n\n\n\n0".formatted(PLAYER1_ID, PLAYER2_ID);
+
+        Player p1 = getLegitimatePlayer(PLAYER1_ID);
+        Player p2 = getLegitimatePlayer(PLAYER2_ID);
+        List<Match> matches = createMatches(7);
+
+        for (int i = 0; i < matches.size(); i++) {
+            addBet(p1, matches.get(i), i == 0 ? BetSide.A : BetSide.B, true);
+        }
+        addBet(p2, matches.get(0), BetSide.A, true);
+
+        p1.setBalance(2000);
+        p2.setBalance(2000);
+
+        String result = BettingDataFormatter
+                .formatData(new ProcessingResult(0, List.of(p1, p2)));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testWritesOnlyFirstPlayersOfEachGroup() {
+        String expected = "%s 2000 0,00\n\n%s BET %s 5000 A\n\n0"
+                .formatted(PLAYER1_ID, PLAYER1_ID, MATCH_ID);
+
+        List<Player> players = List.of(
+                getLegitimatePlayer(PLAYER2_ID),
+                getIllegitimatePlayer(PLAYER2_ID),
+                getLegitimatePlayer(PLAYER1_ID),
+                getIllegitimatePlayer(PLAYER1_ID));
+
+        String result = formatData(new ProcessingResult(0, players),
+                ReportFilter.builder().limit(1).build());
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testWritesOnlyPlayersInIdRange() {
+        String expected = "%s 2000 0,00\n\n\n\n0".formatted(PLAYER1_ID);
+
+        List<Player> players = List.of(
+                getLegitimatePlayer(PLAYER1_ID),
+                getLegitimatePlayer(PLAYER2_ID),
+                getLegitimatePlayer(MATCH_ID));
+
+        String result = formatData(new ProcessingResult(0, players), ReportFilter.builder()
+                .fromId(UUID.fromString(PLAYER1_ID))
+                .toId(UUID.fromString(PLAYER2_ID))
+                .build());
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testFirstPlayersMatchFullReport() {
+        List<Player> players = new ArrayList<>();
+
+        for (int i = 0; i < 1000; i++) {
+            players.add(getLegitimatePlayer(new UUID(i * 0x9E3779B97F4A7C15L, i).toString()));
+        }
+        List<String> fullReport = BettingDataFormatter
+                .formatData(new ProcessingResult(0, players))
+                .lines()
+                .toList();
+
+        List<String> result = formatData(new ProcessingResult(0, players),
+                ReportFilter.builder().limit(10).build())
+                .lines()
+                .toList();
+
+        assertEquals(fullReport.subList(0, 10), result.subList(0, 10));
+        assertEquals("", result.get(10));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenReportLimitIsNegative() {
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ReportFilter.builder().limit(-1).build());
+    }
+
+    private String formatData(ProcessingResult data, ReportFilter filter) {
+        var builder = new StringBuilder();
+
+        BettingDataFormatter.formatData(data, builder, filter);
+
+        return builder.toString();
+    }
+
     private Player getLegitimatePlayer(String id) {
         Player player = new Player(UUID.fromString(id));
 
@@ -128,9 +268,9 @@ public class BettingDataFormatterTests {
 
     private Player getIllegitimatePlayer(String id) {
         Player player = new Player(UUID.fromString(id));
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
-        addBet(player, match, "A", false);
+        addBet(player, match, BetSide.A, false);
 
         return player;
     }
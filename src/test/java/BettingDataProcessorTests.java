@@ -1,11 +1,26 @@
+import domain.ActionType;
+import domain.BetSide;
 import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
 import domain.Player;
 import domain.PlayerAction;
 import domain.ProcessingResult;
+import formatter.BettingDataFormatter;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import processor.BettingDataProcessor;
+import processor.ProcessingMode;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
 import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -64,10 +79,10 @@ public class BettingDataProcessorTests {
     @Test
     public void testLegalBetWin() {
         Player player = new Player(UUID.fromString(PLAYER1_ID));
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         addDeposit(player, 0);
-        addBet(player, match, "A", true);
+        addBet(player, match, BetSide.A, true);
 
         String bet = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
 
@@ -81,10 +96,10 @@ public class BettingDataProcessorTests {
     @Test
     public void testLegalBetLose() {
         Player player = new Player(UUID.fromString(PLAYER1_ID));
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         addDeposit(player, 0);
-        addBet(player, match, "B", true);
+        addBet(player, match, BetSide.B, true);
 
         String bet = "%s,BET,%s,1,B".formatted(PLAYER1_ID, MATCH_ID);
 
@@ -98,10 +113,10 @@ public class BettingDataProcessorTests {
     @Test
     public void testLegalBetDraw() {
         Player player = new Player(UUID.fromString(PLAYER1_ID));
-        Match match = createMatch("DRAW");
+        Match match = createMatch(Outcome.DRAW);
 
         addDeposit(player, 0);
-        addBet(player, match, "A", true);
+        addBet(player, match, BetSide.A, true);
 
         String bet = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
 
@@ -115,10 +130,10 @@ public class BettingDataProcessorTests {
     @Test
     public void testIllegalBet() {
         Player player = new Player(UUID.fromString(PLAYER1_ID));
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         addDeposit(player, 0);
-        addBet(player, match, "A", false);
+        addBet(player, match, BetSide.A, false);
 
         String bet = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, MATCH_ID);
 
@@ -195,6 +210,34 @@ public class BettingDataProcessorTests {
                 () -> getResult(join(bet, bet)));
     }
 
+    @Test
+    public void testThrowsExceptionWhenBettingAgainAfterIllegalBet() {
+        Match match = createMatch(Outcome.A);
+
+        String illegalBet = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, MATCH_ID);
+        String bet = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> getResult(join(P1_DEPOSIT, illegalBet, bet), List.of(match)));
+    }
+
+    @Test
+    public void testDuplicateBetCheckDoesNotGrowWithBetCount() {
+        int count = 50_000;
+        List<Match> matches = createMatches(count);
+        var builder = new StringBuilder("%s,DEPOSIT,,%d,\n".formatted(PLAYER1_ID, count));
+
+        // Checking every bet against all earlier actions would take count * count / 2 steps
+        for (Match match : matches) {
+            builder.append("%s,BET,%s,1,B\n".formatted(PLAYER1_ID, match.getId()));
+        }
+        long hostBalanceChange = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> getResult(builder.toString(), matches).getHostBalanceChange());
+
+        assertEquals(count, hostBalanceChange);
+    }
+
     @Test
     public void testThrowsExceptionWhenInvalidActionName() {
         String invalid = "%s,INVALID,,1000,".formatted(PLAYER1_ID);
@@ -204,9 +247,27 @@ public class BettingDataProcessorTests {
                 () -> getResult(invalid));
     }
 
+    @Test
+    public void testBetOnUnknownSideLoses() {
+        Match match = createMatch(Outcome.A);
+
+        String bet = "%s,BET,%s,10,DRAW".formatted(PLAYER1_ID, MATCH_ID);
+
+        ProcessingResult result = getResult(join(P1_DEPOSIT, bet), List.of(match));
+        Player player = result.getPlayers().get(0);
+        PlayerAction action = player.getPlayerActions().get(1);
+
+        assertEquals(1990, player.getBalance());
+        assertTrue(player.isLegitimate());
+        assertTrue(action.isLegalAction());
+        assertFalse(action.isBetWon());
+        assertNull(action.getBetSide());
+        assertEquals(10, result.getHostBalanceChange());
+    }
+
     @Test
     public void testOnlyBetsAffectHostBalanceChange() {
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         String bet1 = "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID);
         String withdraw = "%s,WITHDRAW,,1000,".formatted(PLAYER1_ID);
@@ -220,7 +281,7 @@ public class BettingDataProcessorTests {
 
     @Test
     public void testIllegalActionsDoNotEffectHostBalanceChange() {
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         String bet = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, MATCH_ID);
 
@@ -232,7 +293,7 @@ public class BettingDataProcessorTests {
 
     @Test
     public void testIllegitimatePlayerDoesNotEffectHostBalanceChange() {
-        Match match = createMatch("A");
+        Match match = createMatch(Outcome.A);
 
         String bet1 = "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID);
         String bet2 = "%s,BET,%s,100,A".formatted(PLAYER2_ID, MATCH_ID);
@@ -244,6 +305,220 @@ public class BettingDataProcessorTests {
         assertEquals(-39, result);
     }
 
+    @Test
+    public void testWinRateCountsOnlyLegalBets() {
+        List<Match> matches = createMatches(3);
+
+        String win = "%s,BET,%s,1,A".formatted(PLAYER1_ID, matches.get(0).getId());
+        String lose = "%s,BET,%s,1,B".formatted(PLAYER1_ID, matches.get(1).getId());
+        String illegalWin = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, matches.get(2).getId());
+
+        Player player = getResult(join(P1_DEPOSIT, win, lose, illegalWin), matches)
+                .getPlayers().get(0);
+
+        assertEquals(new BigDecimal("0.50"), player.getWinRate());
+        assertEquals(2, player.getLegalBetCount());
+        assertEquals(1, player.getBetsWonCount());
+        assertEquals(2, player.getBetBalanceChange());
+    }
+
+    @Test
+    public void testSummaryModeKeepsOnlyAggregates() {
+        List<Match> matches = createMatches(2);
+
+        String win = "%s,BET,%s,1,A".formatted(PLAYER1_ID, matches.get(0).getId());
+        String illegalWithdraw = "%s,WITHDRAW,,5000,".formatted(PLAYER1_ID);
+        String illegalBet = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, matches.get(1).getId());
+        String input = join(P1_DEPOSIT, win, illegalWithdraw, illegalBet);
+
+        Player expected = getResult(input, matches).getPlayers().get(0);
+        Player actual = new BettingDataProcessor(ProcessingMode.SUMMARY)
+                .processBettingData(input, matches)
+                .getPlayers().get(0);
+
+        assertTrue(actual.getPlayerActions().isEmpty());
+        assertEquals(expected.getBalance(), actual.getBalance());
+        assertEquals(expected.isLegitimate(), actual.isLegitimate());
+        assertEquals(expected.getWinRate(), actual.getWinRate());
+        assertEquals(expected.getEarliestIllegalAction(), actual.getEarliestIllegalAction());
+        assertEquals(ActionType.WITHDRAW, actual.getEarliestIllegalAction().orElseThrow().getActionType());
+    }
+
+    @Test
+    public void testWalletRunContinuesAfterIllegalWithdraw() {
+        List<Match> matches = createMatches(1);
+
+        String bet = "%s,BET,%s,500,A".formatted(PLAYER1_ID, matches.get(0).getId());
+        String input = join(P1_DEPOSIT, bet,
+                "%s,WITHDRAW,,1000,".formatted(PLAYER1_ID),
+                "%s,WITHDRAW,,5000,".formatted(PLAYER1_ID),
+                "%s,DEPOSIT,,300,".formatted(PLAYER1_ID),
+                "%s,WITHDRAW,,5000,".formatted(PLAYER1_ID),
+                P2_DEPOSIT,
+                "%s,WITHDRAW,,200,".formatted(PLAYER1_ID));
+
+        for (ProcessingMode mode : ProcessingMode.values()) {
+            ProcessingResult result = new BettingDataProcessor(mode).processBettingData(input, matches);
+            Player player = result.getPlayers().get(0);
+            PlayerAction illegalAction = player.getEarliestIllegalAction().orElseThrow();
+            long expectedBalance = 2000 + (long) Math.floor(500 * matches.get(0).getReturnRateA()) - 1000 + 300 - 200;
+
+            assertEquals(expectedBalance, player.getBalance(), mode.name());
+            assertFalse(player.isLegitimate(), mode.name());
+            assertEquals(3, illegalAction.getQueueNr(), mode.name());
+            assertEquals(5000, illegalAction.getCoinAmount(), mode.name());
+            assertEquals(0, result.getHostBalanceChange(), mode.name());
+            assertEquals(2000, result.getPlayers().get(1).getBalance(), mode.name());
+
+            if (mode != ProcessingMode.SUMMARY) {
+                List<Integer> balanceChanges = player.getPlayerActions().stream()
+                        .map(PlayerAction::getPlayerBalanceChange)
+                        .toList();
+
+                assertEquals(7, balanceChanges.size(), mode.name());
+                assertEquals(List.of(-1000, 0, 300, 0, -200), balanceChanges.subList(2, 7), mode.name());
+            }
+        }
+    }
+
+    @Test
+    public void testOffHeapModeKeepsSameActions() {
+        var random = new Random(15);
+        List<Match> matches = createRandomMatches(random, 50);
+        String input = createRandomPlayerData(random, 20, 2000, matches);
+
+        ProcessingResult expected = getResult(input, matches);
+        ProcessingResult actual = new BettingDataProcessor(ProcessingMode.OFF_HEAP)
+                .processBettingData(input, matches);
+
+        assertEquals(expected.getHostBalanceChange(), actual.getHostBalanceChange());
+        assertEquals(expected.getPlayers().size(), actual.getPlayers().size());
+
+        for (int i = 0; i < expected.getPlayers().size(); i++) {
+            Player expectedPlayer = expected.getPlayers().get(i);
+            Player actualPlayer = actual.getPlayers().get(i);
+
+            assertEquals(expectedPlayer.getPlayerActions(), new ArrayList<>(actualPlayer.getPlayerActions()));
+
+            for (int j = expectedPlayer.getPlayerActions().size() - 1; j >= 0; j--) {
+                assertEquals(expectedPlayer.getPlayerActions().get(j), actualPlayer.getPlayerActions().get(j));
+            }
+            assertEquals(expectedPlayer.getBalance(), actualPlayer.getBalance());
+            assertEquals(expectedPlayer.getWinRate(), actualPlayer.getWinRate());
+            assertEquals(expectedPlayer.getEarliestIllegalAction(), actualPlayer.getEarliestIllegalAction());
+        }
+    }
+
+    @Test
+    public void testProcessesReader() {
+        Player player = new Player(UUID.fromString(PLAYER1_ID));
+
+        addDeposit(player, 0);
+        addWithdraw(player, true);
+
+        String withdraw = "%s,WITHDRAW,,1000,".formatted(PLAYER1_ID);
+
+        List<Player> result = new BettingDataProcessor()
+                .processBettingData(new StringReader(join(P1_DEPOSIT, withdraw)), new MatchIndex())
+                .getPlayers();
+
+        assertEquals(1, result.size());
+        assertEquals("", comparePlayerToExpected(player, result.get(0)));
+    }
+
+    @Test
+    public void testProcessesInputStream() {
+        Player player = new Player(UUID.fromString(PLAYER1_ID));
+
+        addDeposit(player, 0);
+
+        var input = new ByteArrayInputStream(P1_DEPOSIT.getBytes(StandardCharsets.UTF_8));
+
+        List<Player> result = new BettingDataProcessor()
+                .processBettingData(input, new MatchIndex())
+                .getPlayers();
+
+        assertEquals(1, result.size());
+        assertEquals("", comparePlayerToExpected(player, result.get(0)));
+    }
+
+    @Test
+    public void testProcessesFile(@TempDir Path dir) throws IOException {
+        Match match = createMatch(Outcome.A);
+
+        String bet1 = "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID);
+        String bet2 = "%s,BET,%s,100,B".formatted(PLAYER2_ID, MATCH_ID);
+        String input = join(P1_DEPOSIT, P2_DEPOSIT, bet1, bet2);
+
+        Path file = Files.writeString(dir.resolve("player_data.txt"), input + "\n");
+
+        ProcessingResult expected = getResult(input, List.of(match));
+        ProcessingResult result = new BettingDataProcessor()
+                .processBettingData(file, new MatchIndex(List.of(match)));
+
+        assertEquals(expected.getHostBalanceChange(), result.getHostBalanceChange());
+        assertEquals(expected.getPlayers().size(), result.getPlayers().size());
+    }
+
+    @Test
+    public void testResumesFromCheckpoint(@TempDir Path dir) throws IOException {
+        var random = new Random(17);
+        List<Match> matches = createRandomMatches(random, 50);
+        String input = createRandomPlayerData(random, 20, 2000, matches);
+
+        // The first run sees half of the data, ending with a line that is still being written
+        int split = input.indexOf('\n', input.length() / 2) + 1;
+        String firstPart = input.substring(0, split);
+
+        Path file = Files.writeString(dir.resolve("player_data.txt"), input.substring(0, split + 20));
+        Path checkpoint = dir.resolve("checkpoint.bin");
+
+        assertEquals(processSummary(firstPart, matches), processWithCheckpoint(file, matches, checkpoint));
+        assertTrue(Files.exists(checkpoint));
+
+        Files.writeString(file, input);
+
+        assertEquals(processSummary(input, matches), processWithCheckpoint(file, matches, checkpoint));
+        assertEquals(processSummary(input, matches), processWithCheckpoint(file, matches, checkpoint));
+    }
+
+    @Test
+    public void testCheckpointKeepsBetsOnMatches(@TempDir Path dir) throws IOException {
+        Match match = createMatch(Outcome.A);
+        var matches = new MatchIndex(List.of(match));
+
+        String bet = "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID);
+
+        Path file = Files.writeString(dir.resolve("player_data.txt"), join(P1_DEPOSIT, bet) + "\n");
+        Path checkpoint = dir.resolve("checkpoint.bin");
+
+        new BettingDataProcessor(ProcessingMode.SUMMARY).processBettingData(file, matches, checkpoint);
+        Files.writeString(file, join(P1_DEPOSIT, bet, bet) + "\n");
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new BettingDataProcessor(ProcessingMode.SUMMARY).processBettingData(file, matches, checkpoint));
+    }
+
+    @Test
+    public void testCheckpointRequiresSummaryMode(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("player_data.txt"), P1_DEPOSIT);
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> new BettingDataProcessor().processBettingData(file, new MatchIndex(), dir.resolve("checkpoint.bin")));
+    }
+
+    private String processSummary(String input, List<Match> matches) {
+        return BettingDataFormatter.formatData(new BettingDataProcessor(ProcessingMode.SUMMARY)
+                .processBettingData(input, matches));
+    }
+
+    private String processWithCheckpoint(Path file, List<Match> matches, Path checkpoint) {
+        return BettingDataFormatter.formatData(new BettingDataProcessor(ProcessingMode.SUMMARY)
+                .processBettingData(file, new MatchIndex(matches), checkpoint));
+    }
+
     private String comparePlayerToExpected(Player expected, Player actual) {
         if (!expected.getId().equals(actual.getId())) {
             return "Id should be %s, but was %s"
@@ -0,0 +1,102 @@
+import domain.ActionType;
+import domain.BetSide;
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import domain.Player;
+import domain.PlayerActionEvent;
+import domain.ProcessingResult;
+import org.junit.jupiter.api.Test;
+import processor.BettingDataProcessor;
+import processor.BettingEngine;
+import processor.ProcessingMode;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class BettingEngineTests {
+
+    private static final UUID PLAYER1 = UUID.fromString(PLAYER1_ID);
+    private static final UUID PLAYER2 = UUID.fromString(PLAYER2_ID);
+
+    @Test
+    public void testKeepsBalancesUpToDate() {
+        Match match = createMatch(Outcome.A);
+        var engine = new BettingEngine(new MatchIndex(List.of(match)));
+
+        engine.apply(PlayerActionEvent.deposit(PLAYER1, 2000));
+        engine.apply(PlayerActionEvent.deposit(PLAYER2, 2000));
+        engine.apply(PlayerActionEvent.bet(PLAYER1, match.getId(), 10, BetSide.A));
+
+        assertEquals(2039, engine.getBalance(PLAYER1));
+        assertEquals(-39, engine.getHostBalanceChange());
+
+        engine.apply(PlayerActionEvent.bet(PLAYER2, match.getId(), 100, BetSide.B));
+
+        assertEquals(1900, engine.getBalance(PLAYER2));
+        assertEquals(61, engine.getHostBalanceChange());
+
+        engine.apply(PlayerActionEvent.withdraw(PLAYER1, 5000));
+
+        assertFalse(engine.isLegitimate(PLAYER1));
+        assertEquals(100, engine.getHostBalanceChange());
+    }
+
+    @Test
+    public void testUnknownPlayerHasEmptyBalance() {
+        var engine = new BettingEngine(new MatchIndex());
+
+        assertEquals(0, engine.getBalance(PLAYER1));
+        assertTrue(engine.isLegitimate(PLAYER1));
+    }
+
+    @Test
+    public void testAppliesSameRulesAsProcessor() {
+        var random = new Random(19);
+        List<Match> matches = createRandomMatches(random, 50);
+        String playerData = createRandomPlayerData(random, 20, 5000, matches);
+
+        var engine = new BettingEngine(new MatchIndex(matches), ProcessingMode.FULL);
+
+        for (String line : playerData.split("\n")) {
+            engine.apply(createEvent(line.split(",", -1)));
+        }
+        ProcessingResult expected = new BettingDataProcessor().processBettingData(playerData, matches);
+
+        assertEquals(expected.getHostBalanceChange(), engine.getHostBalanceChange());
+        assertEquals(expected, engine.createResult());
+
+        for (Player player : expected.getPlayers()) {
+            assertEquals(player.getBalance(), engine.getBalance(player.getId()));
+            assertEquals(player.isLegitimate(), engine.isLegitimate(player.getId()));
+        }
+    }
+
+    @Test
+    public void testThrowsExceptionWhenBetOnUnknownMatch() {
+        var engine = new BettingEngine(new MatchIndex());
+
+        engine.apply(PlayerActionEvent.deposit(PLAYER1, 2000));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> engine.apply(PlayerActionEvent.bet(PLAYER1, UUID.fromString(MATCH_ID), 10, BetSide.A)));
+        assertEquals(2000, engine.getBalance(PLAYER1));
+    }
+
+    private PlayerActionEvent createEvent(String[] values) {
+        UUID playerId = UUID.fromString(values[0]);
+        int coinAmount = Integer.parseInt(values[3]);
+
+        return switch (ActionType.valueOf(values[1])) {
+            case DEPOSIT -> PlayerActionEvent.deposit(playerId, coinAmount);
+            case WITHDRAW -> PlayerActionEvent.withdraw(playerId, coinAmount);
+            case BET -> PlayerActionEvent.bet(playerId, UUID.fromString(values[2]), coinAmount, BetSide.valueOf(values[4]));
+        };
+    }
+}
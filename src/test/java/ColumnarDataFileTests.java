@@ -0,0 +1,71 @@
+import domain.Match;
+import domain.ProcessingResult;
+import formatter.BettingDataFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.BettingDataProcessor;
+import processor.ColumnarDataFile;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+
+public class ColumnarDataFileTests {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testReadsMatches() {
+        List<Match> matches = createRandomMatches(new Random(18), 100);
+
+        Path file = convert(matches, "");
+
+        assertEquals(matches, ColumnarDataFile.readMatches(file).getMatches());
+    }
+
+    @Test
+    public void testProcessesSameAsText() {
+        var random = new Random(18);
+        List<Match> matches = createRandomMatches(random, 50);
+        String playerData = createRandomPlayerData(random, 20, 150_000, matches);
+
+        Path file = convert(matches, playerData);
+
+        ProcessingResult expected = new BettingDataProcessor().processBettingData(playerData, matches);
+        ProcessingResult actual = ColumnarDataFile.processBettingData(file, ProcessingMode.FULL);
+
+        assertEquals(expected, actual);
+        assertEquals(BettingDataFormatter.formatData(expected), BettingDataFormatter.formatData(actual));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenNotColumnarFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "not a columnar data file");
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> ColumnarDataFile.readMatches(file));
+    }
+
+    private Path convert(List<Match> matches, String playerData) {
+        var matchData = new StringBuilder();
+
+        for (Match match : matches) {
+            matchData.append("%s,%s,%s,%s\n".formatted(
+                    match.getId(), match.getReturnRateA(), match.getReturnRateB(), match.getOutcome()));
+        }
+        Path file = dir.resolve("data.bin");
+
+        ColumnarDataFile.convert(matchData.toString(), new StringReader(playerData), file);
+
+        return file;
+    }
+}
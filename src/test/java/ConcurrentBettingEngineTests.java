@@ -0,0 +1,84 @@
+import domain.BetSide;
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import domain.PlayerActionEvent;
+import formatter.BettingDataFormatter;
+import org.junit.jupiter.api.Test;
+import processor.BettingDataProcessor;
+import processor.ConcurrentBettingEngine;
+import processor.ProcessingMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class ConcurrentBettingEngineTests {
+
+    @Test
+    public void testIngestsPartitionsConcurrently() throws Exception {
+        var random = new Random(20);
+        List<Match> matches = createRandomMatches(random, 50);
+        List<String> partitions = new ArrayList<>();
+
+        // Every partition has its own players, like upstream partitions keyed by player
+        for (int i = 0; i < 4; i++) {
+            partitions.add(createRandomPlayerData(random, 10, 5000, matches));
+        }
+        var engine = new ConcurrentBettingEngine(new MatchIndex(matches), ProcessingMode.SUMMARY, 8);
+        ExecutorService executor = Executors.newFixedThreadPool(partitions.size());
+
+        try {
+            List<Future<?>> ingestion = new ArrayList<>();
+
+            for (String partition : partitions) {
+                ingestion.add(executor.submit(() -> partition.lines().forEach(engine::processLine)));
+            }
+            for (Future<?> future : ingestion) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        String expected = BettingDataFormatter.formatData(new BettingDataProcessor(ProcessingMode.SUMMARY)
+                .processBettingData(String.join("", partitions), matches));
+
+        assertEquals(expected, BettingDataFormatter.formatData(engine.createResult()));
+    }
+
+    @Test
+    public void testAppliesEvents() {
+        Match match = createMatch(Outcome.A);
+        var player = UUID.fromString(PLAYER1_ID);
+        var engine = new ConcurrentBettingEngine(new MatchIndex(List.of(match)));
+
+        engine.apply(PlayerActionEvent.deposit(player, 2000));
+        engine.apply(PlayerActionEvent.bet(player, match.getId(), 10, BetSide.A));
+
+        assertEquals(2039, engine.getBalance(player));
+        assertTrue(engine.isLegitimate(player));
+        assertEquals(-39, engine.getHostBalanceChange());
+    }
+
+    @Test
+    public void testThrowsExceptionWhenDuplicateBet() {
+        Match match = createMatch(Outcome.A);
+        var engine = new ConcurrentBettingEngine(new MatchIndex(List.of(match)));
+        String bet = "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID);
+
+        engine.processLine("%s,DEPOSIT,,2000,".formatted(PLAYER1_ID));
+        engine.processLine(bet);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> engine.processLine(bet));
+    }
+}
@@ -0,0 +1,83 @@
+import domain.Outcome;
+import org.junit.jupiter.api.Test;
+import util.CsvTokenizer;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static constants.TestConstants.*;
+
+public class CsvTokenizerTests {
+
+    @Test
+    public void testSplitsFieldsIncludingEmptyOnes() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("%s,DEPOSIT,,4000,".formatted(PLAYER1_ID));
+
+        assertEquals("DEPOSIT", tokenizer.getString(1));
+        assertEquals(0, tokenizer.length(2));
+        assertEquals(0, tokenizer.length(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.length(5));
+    }
+
+    @Test
+    public void testReturnsMatchingEnumConstant() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("DRAW,C");
+
+        assertEquals(Outcome.DRAW, tokenizer.getEnum(0, Outcome.values()));
+        assertNull(tokenizer.getEnum(1, Outcome.values()));
+    }
+
+    @Test
+    public void testParsesUuid() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("%s,%s".formatted(PLAYER1_ID, MATCH_ID.toUpperCase()));
+
+        assertEquals(UUID.fromString(PLAYER1_ID), tokenizer.parseUuid(0));
+        assertEquals(UUID.fromString(MATCH_ID), tokenizer.parseUuid(1));
+    }
+
+    @Test
+    public void testParsesNonCanonicalUuidLikeUuidFromString() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("1-2-3-4-5");
+
+        assertEquals(UUID.fromString("1-2-3-4-5"), tokenizer.parseUuid(0));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenInvalidUuid() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("NOTFOUND,163f23ed-e9a9-4e54-a5b1-4e1fc86f12fx");
+
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.parseUuid(0));
+        assertThrows(IllegalArgumentException.class, () -> tokenizer.parseUuid(1));
+    }
+
+    @Test
+    public void testParsesIntLikeIntegerParseInt() {
+        String[] values = {"0", "4000", "-15", "+7", "2147483647", "-2147483648"};
+
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize(String.join(",", values));
+
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Integer.parseInt(values[i]), tokenizer.parseInt(i));
+        }
+    }
+
+    @Test
+    public void testThrowsExceptionWhenInvalidInt() {
+        String[] values = {"", "-", "+", "12a", "2147483648", "-2147483649"};
+
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize(String.join(",", values));
+
+        for (int i = 0; i < values.length; i++) {
+            int field = i;
+
+            assertThrows(NumberFormatException.class, () -> tokenizer.parseInt(field));
+        }
+    }
+
+    @Test
+    public void testThrowsExceptionWhenFieldIsMissing() {
+        CsvTokenizer tokenizer = new CsvTokenizer().tokenize("1,2");
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tokenizer.parseInt(2));
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import util.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileUtilTests {
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    public void testReadsMappedLines() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\nsecond\n\nlast");
+
+        assertEquals(List.of("first", "second", "", "last"), readMappedFile(file, 1024));
+    }
+
+    @Test
+    public void testStripsCarriageReturns() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\r\nsecond\r\n");
+
+        assertEquals(List.of("first", "second"), readMappedFile(file, 1024));
+    }
+
+    @Test
+    public void testReadsLinesAcrossRegions() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\nsecond\nthird\nfourth");
+
+        assertEquals(List.of("first", "second", "third", "fourth"), readMappedFile(file, 8));
+    }
+
+    @Test
+    public void testReadsEmptyFile() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "");
+
+        assertEquals(List.of(), readMappedFile(file, 8));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenLineIsLongerThanRegion() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\nvery long line\n");
+
+        assertThrows(
+                RuntimeException.class,
+                () -> readMappedFile(file, 8));
+    }
+
+    @Test
+    public void testReadsCompleteLinesFromOffset() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\nsecond\nthird\nunterminated");
+        List<String> lines = new ArrayList<>();
+
+        long offset = FileUtil.readMappedFile(file, 6, 16, false, line -> lines.add(line.toString()));
+
+        assertEquals(List.of("second", "third"), lines);
+        assertEquals(19, offset);
+        assertEquals(31, FileUtil.readMappedFile(file, offset, true, line -> lines.add(line.toString())));
+        assertEquals("unterminated", lines.get(2));
+    }
+
+    @Test
+    public void testReadsFileWithCarriageReturns() throws IOException {
+        Path file = Files.writeString(dir.resolve("data.txt"), "first\r\nsecond\r\n");
+
+        assertEquals("first\nsecond", FileUtil.readFile(file));
+    }
+
+    private List<String> readMappedFile(Path file, int regionSize) {
+        List<String> lines = new ArrayList<>();
+
+        FileUtil.readMappedFile(file, regionSize, line -> lines.add(line.toString()));
+
+        return lines;
+    }
+}
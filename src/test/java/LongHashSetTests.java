@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+import util.LongHashSet;
+
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashSetTests {
+
+    @Test
+    public void testAddReturnsWhetherValueIsNew() {
+        var set = new LongHashSet();
+
+        assertTrue(set.add(1L << 32 | 5));
+        assertFalse(set.add(1L << 32 | 5));
+        assertTrue(set.add(5));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void testKeepsValuesWhenGrowing() {
+        var set = new LongHashSet();
+
+        LongStream.range(0, 10_000).forEach(value -> set.add(value * 31));
+
+        assertEquals(10_000, set.size());
+        assertTrue(LongStream.range(0, 10_000).allMatch(value -> set.contains(value * 31)));
+        assertFalse(set.contains(1));
+
+        long[] values = set.toArray();
+
+        Arrays.sort(values);
+        assertArrayEquals(LongStream.range(0, 10_000).map(value -> value * 31).toArray(), values);
+    }
+
+    @Test
+    public void testNegativeValueThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new LongHashSet().add(-1));
+    }
+}
@@ -1,8 +1,9 @@
 import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
 import processor.MatchDataProcessor;
 import org.junit.jupiter.api.Test;
 
-import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -15,9 +16,9 @@ public class MatchDataProcessorTests {
         String match = "%s,1.45,0.75,A".formatted(MATCH_ID);
 
         Match expected = new Match(
-                UUID.fromString(MATCH_ID), "A", 1.45, 0.75);
+                UUID.fromString(MATCH_ID), Outcome.A, 1.45, 0.75);
 
-        List<Match> result = MatchDataProcessor.processMatchData(match);
+        MatchIndex result = MatchDataProcessor.processMatchData(match);
 
         assertEquals(1, result.size());
         assertEquals(result.get(0), expected);
@@ -27,7 +28,7 @@ public class MatchDataProcessorTests {
     public void testIgnoresEmptyLines() {
         String match = "\n\n%s,1.45,0.75,A\n".formatted(MATCH_ID);
 
-        List<Match> result = MatchDataProcessor.processMatchData(match);
+        MatchIndex result = MatchDataProcessor.processMatchData(match);
 
         assertEquals(1, result.size());
     }
@@ -0,0 +1,134 @@
+import domain.BetSide;
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import org.junit.jupiter.api.Test;
+import processor.BettingDataProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class MatchIndexTests {
+
+    @Test
+    public void testFindsMatchById() {
+        Match match = createMatch(Outcome.A);
+
+        var index = new MatchIndex(List.of(match));
+
+        assertEquals(match, index.findById(UUID.fromString(MATCH_ID)));
+    }
+
+    @Test
+    public void testKeepsInsertionOrderAsIndex() {
+        List<Match> matches = createMatches(3);
+
+        var index = new MatchIndex(matches);
+
+        assertEquals(3, index.size());
+
+        for (int i = 0; i < matches.size(); i++) {
+            assertEquals(i, index.indexOf(matches.get(i).getId()));
+            assertEquals(matches.get(i), index.get(i));
+        }
+    }
+
+    @Test
+    public void testKeepsFirstMatchWhenIdIsDuplicated() {
+        Match first = createMatch(Outcome.A);
+        Match second = createMatch(Outcome.B);
+
+        var index = new MatchIndex(List.of(first, second));
+
+        assertEquals(first, index.findById(first.getId()));
+    }
+
+    @Test
+    public void testSettlementTableMatchesOutcomes() {
+        var index = new MatchIndex(List.of(createMatch(Outcome.A), createMatch(Outcome.B), createMatch(Outcome.DRAW)));
+
+        assertTrue(index.isWonBy(0, BetSide.A));
+        assertFalse(index.isWonBy(0, BetSide.B));
+        assertTrue(index.isWonBy(1, BetSide.B));
+        assertFalse(index.isWonBy(1, BetSide.A));
+        assertTrue(index.isDraw(2));
+        assertFalse(index.isWonBy(2, BetSide.A));
+        assertFalse(index.isWonBy(2, BetSide.B));
+        assertFalse(index.isDraw(0));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenSettlingIndexPastSize() {
+        var index = new MatchIndex(List.of(createMatch(Outcome.A)));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> index.isDraw(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.isWonBy(1, BetSide.A));
+        assertThrows(IndexOutOfBoundsException.class, () -> index.calculateWinnings(1, 10));
+    }
+
+    @Test
+    public void testWinningsMatchBaselineRounding() {
+        // Payouts of the previous calculation, including products that fall just below a whole number
+        double[] returnRates = {1.1, 0.29, 2.3, 4.35, 3.9, 1.15, 1.13};
+        int[] coinAmounts = {10, 100, 100, 100, 3, 7, 100};
+        int[] expectedWinnings = {11, 28, 229, 434, 11, 8, 112};
+
+        for (int i = 0; i < returnRates.length; i++) {
+            var index = new MatchIndex(List.of(
+                    new Match(UUID.randomUUID(), Outcome.A, returnRates[i], 1),
+                    new Match(UUID.randomUUID(), Outcome.B, 1, returnRates[i])));
+
+            assertEquals(expectedWinnings[i], index.calculateWinnings(0, coinAmounts[i]));
+            assertEquals(expectedWinnings[i], index.calculateWinnings(1, coinAmounts[i]));
+        }
+    }
+
+    @Test
+    public void testThrowsExceptionWhenMatchNotFound() {
+        var index = new MatchIndex(createMatches(3));
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> index.findById(UUID.fromString(MATCH_ID)));
+    }
+
+    @Test
+    public void testLookupCostDoesNotGrowWithMatchCount() {
+        int count = 100_000;
+        var idReads = new AtomicLong();
+        List<Match> matches = new ArrayList<>();
+        var builder = new StringBuilder();
+
+        // Bet on every match, so a linear scan would read count * count / 2 match ids
+        for (int i = 0; i < count; i++) {
+            var playerId = new UUID(1, i);
+
+            matches.add(new Match(new UUID(0, i), Outcome.A, 3.9, 5) {
+                @Override
+                public UUID getId() {
+                    idReads.incrementAndGet();
+                    return super.getId();
+                }
+            });
+            builder.append("%s,DEPOSIT,,1,\n".formatted(playerId));
+            builder.append("%s,BET,%s,1,B\n".formatted(playerId, new UUID(0, i)));
+        }
+        var index = new MatchIndex(matches);
+
+        idReads.set(0);
+
+        long hostBalanceChange = new BettingDataProcessor()
+                .processBettingData(builder.toString(), index)
+                .getHostBalanceChange();
+
+        assertEquals(count, hostBalanceChange);
+        // At most one read per bet, for the match id stored in the action
+        assertTrue(idReads.get() <= count);
+    }
+}
@@ -0,0 +1,171 @@
+import domain.ActionType;
+import domain.Match;
+import domain.Outcome;
+import jdk.jfr.EventType;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.LatencyHistogram;
+import metrics.Metrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.BettingDataProcessor;
+import util.FileUtil;
+
+import javax.management.ObjectName;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class MetricsTests {
+
+    @Test
+    public void testHistogramPercentilesAreWithinBucketPrecision() {
+        var histogram = new LatencyHistogram();
+
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000, histogram.getMax());
+        assertEquals(50_000.5, histogram.getMean());
+        assertEquals(50_000, histogram.getPercentile(50), 50_000 * 0.07);
+        assertEquals(99_000, histogram.getPercentile(99), 99_000 * 0.07);
+        assertEquals(100_000, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testHistogramRecordsSmallValuesExactly() {
+        var histogram = new LatencyHistogram();
+
+        histogram.record(3);
+        histogram.record(-1);
+
+        assertEquals(0, histogram.getPercentile(50));
+        assertEquals(3, histogram.getPercentile(100));
+        assertEquals(0, new LatencyHistogram().getPercentile(50));
+    }
+
+    @Test
+    public void testHistogramCoversWholeValueRange() {
+        var histogram = new LatencyHistogram();
+
+        for (long value = 1; value > 0; value *= 3) {
+            histogram.record(value);
+        }
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(Long.MAX_VALUE, histogram.getPercentile(100));
+        assertEquals(1, histogram.getPercentile(1));
+        assertEquals(Math.pow(3, 20), histogram.getPercentile(50), Math.pow(3, 20) * 0.07);
+    }
+
+    @Test
+    public void testCountsProcessedActions() {
+        Match match = createMatch(Outcome.A);
+
+        String input = String.join("\n",
+                "%s,DEPOSIT,,2000,".formatted(PLAYER1_ID),
+                "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID),
+                "%s,WITHDRAW,,5000,".formatted(PLAYER1_ID));
+
+        long linesParsed = Metrics.LINES_PARSED.sum();
+        long deposits = Metrics.getActionsApplied(ActionType.DEPOSIT);
+        long bets = Metrics.getActionsApplied(ActionType.BET);
+        long illegalActions = Metrics.ILLEGAL_ACTIONS.sum();
+        long processingCount = Metrics.PLAYER_DATA_PROCESSING.getCount();
+
+        new BettingDataProcessor().processBettingData(input, List.of(match));
+
+        assertEquals(3, Metrics.LINES_PARSED.sum() - linesParsed);
+        assertEquals(1, Metrics.getActionsApplied(ActionType.DEPOSIT) - deposits);
+        assertEquals(1, Metrics.getActionsApplied(ActionType.BET) - bets);
+        assertEquals(1, Metrics.ILLEGAL_ACTIONS.sum() - illegalActions);
+        assertEquals(1, Metrics.PLAYER_DATA_PROCESSING.getCount() - processingCount);
+    }
+
+    @Test
+    public void testCountsDuplicateBetsThatAreIgnored() {
+        Match draw = createMatch(Outcome.DRAW);
+
+        String input = String.join("\n",
+                "%s,DEPOSIT,,2000,".formatted(PLAYER1_ID),
+                "%s,BET,%s,10,A".formatted(PLAYER1_ID, MATCH_ID),
+                "%s,BET,%s,10,B".formatted(PLAYER1_ID, MATCH_ID));
+
+        long duplicateBets = Metrics.DUPLICATE_BETS.sum();
+
+        new BettingDataProcessor().processBettingData(input, List.of(draw));
+
+        assertEquals(1, Metrics.DUPLICATE_BETS.sum() - duplicateBets);
+    }
+
+    @Test
+    public void testCountsBytesOfFiles(@TempDir Path dir) throws Exception {
+        Path input = Files.write(dir.resolve("input.txt"), "\u00e4\r\nb".getBytes(StandardCharsets.UTF_8));
+
+        long bytesRead = Metrics.BYTES_READ.sum();
+        long bytesWritten = Metrics.BYTES_WRITTEN.sum();
+
+        FileUtil.readFile(input);
+        FileUtil.writeToFile(dir.resolve("output.txt"), writer -> new PrintWriter(writer).append("\u00e4\n").flush());
+
+        assertEquals(5, Metrics.BYTES_READ.sum() - bytesRead);
+        assertEquals(3, Metrics.BYTES_WRITTEN.sum() - bytesWritten);
+    }
+
+    @Test
+    public void testRecordsFlightRecorderEvents(@TempDir Path dir) throws Exception {
+        Match match = createMatch(Outcome.A);
+        Path file = dir.resolve("recording.jfr");
+
+        String input = String.join("\n",
+                "%s,DEPOSIT,,2000,".formatted(PLAYER1_ID),
+                "%s,WITHDRAW,,5000,".formatted(PLAYER1_ID),
+                "%s,BET,%s,10,A".formatted(PLAYER1_ID, PLAYER2_ID));
+
+        try (var recording = new Recording()) {
+            recording.enable("winternship.ApplyBatch").withThreshold(Duration.ZERO);
+            recording.enable("winternship.IllegalAction");
+            recording.enable("winternship.UnknownMatch");
+            recording.start();
+
+            new BettingDataProcessor().processBettingData(String.join("\n", input.lines().limit(2).toList()),
+                    List.of(match));
+            assertThrows(
+                    IllegalArgumentException.class,
+                    () -> new BettingDataProcessor().processBettingData(input, List.of(match)));
+
+            recording.stop();
+            recording.dump(file);
+        }
+        List<String> events = RecordingFile.readAllEvents(file).stream()
+                .map(RecordedEvent::getEventType)
+                .map(EventType::getName)
+                .toList();
+
+        assertTrue(events.contains("winternship.ApplyBatch"));
+        assertTrue(events.contains("winternship.IllegalAction"));
+        assertTrue(events.contains("winternship.UnknownMatch"));
+    }
+
+    @Test
+    public void testRegistersMBean() throws Exception {
+        Metrics.registerMBean();
+        Metrics.registerMBean();
+
+        var name = new ObjectName(Metrics.OBJECT_NAME);
+
+        assertEquals(Metrics.LINES_PARSED.sum(),
+                ManagementFactory.getPlatformMBeanServer().getAttribute(name, "LinesParsed"));
+        assertNotNull(ManagementFactory.getPlatformMBeanServer().getAttribute(name, "BatchApply"));
+    }
+}
@@ -0,0 +1,94 @@
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import domain.ProcessingResult;
+import formatter.BettingDataFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.BettingDataProcessor;
+import processor.ParallelBettingDataProcessor;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class ParallelBettingDataProcessorTests {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @Test
+    public void testResultMatchesSequentialProcessing() {
+        var random = new Random(1);
+        var matches = new MatchIndex(createRandomMatches(random, 50));
+        String input = createRandomPlayerData(random, 100, 20_000, matches.getMatches());
+
+        String expected = BettingDataFormatter.formatData(
+                new BettingDataProcessor().processBettingData(input, matches));
+
+        for (ProcessingMode mode : ProcessingMode.values()) {
+            ProcessingResult result = new ParallelBettingDataProcessor(mode, POOL, 1000)
+                    .processBettingData(input, matches);
+
+            assertEquals(expected, BettingDataFormatter.formatData(result));
+        }
+    }
+
+    @Test
+    public void testProcessesFile(@TempDir Path dir) throws IOException {
+        var random = new Random(2);
+        var matches = new MatchIndex(createRandomMatches(random, 10));
+        String input = createRandomPlayerData(random, 20, 2_000, matches.getMatches());
+
+        Path file = Files.writeString(dir.resolve("player_data.txt"), input);
+
+        String expected = BettingDataFormatter.formatData(
+                new BettingDataProcessor().processBettingData(input, matches));
+        String result = BettingDataFormatter.formatData(
+                new ParallelBettingDataProcessor(ProcessingMode.SUMMARY, POOL, 100)
+                        .processBettingData(file, matches));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testKeepsGlobalQueueNumbers() {
+        Match match = createMatch(Outcome.A);
+
+        String deposit = "%s,DEPOSIT,,10,".formatted(PLAYER1_ID);
+        String otherDeposit = "%s,DEPOSIT,,10,".formatted(PLAYER2_ID);
+        String illegalBet = "%s,BET,%s,5000,A".formatted(PLAYER1_ID, MATCH_ID);
+
+        ProcessingResult result = new ParallelBettingDataProcessor(ProcessingMode.FULL, POOL, 1)
+                .processBettingData(String.join("\n", otherDeposit, "", deposit, illegalBet),
+                        new MatchIndex(List.of(match)));
+
+        int queueNr = result.getPlayers().stream()
+                .flatMap(p -> p.getEarliestIllegalAction().stream())
+                .findFirst()
+                .orElseThrow()
+                .getQueueNr();
+
+        assertEquals(2, queueNr);
+    }
+
+    @Test
+    public void testThrowsExceptionWhenBettingOnSameMatchTwice() {
+        Match match = createMatch(Outcome.A);
+
+        String deposit = "%s,DEPOSIT,,10,".formatted(PLAYER1_ID);
+        String bet = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new ParallelBettingDataProcessor(ProcessingMode.FULL, POOL, 2)
+                        .processBettingData(String.join("\n", deposit, bet, bet), new MatchIndex(List.of(match))));
+    }
+}
@@ -0,0 +1,127 @@
+import domain.Match;
+import domain.MatchIndex;
+import domain.Outcome;
+import formatter.BettingDataFormatter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import processor.BettingDataProcessor;
+import processor.PipelinedBettingDataProcessor;
+import processor.ProcessingMode;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static factory.TestDataFactory.*;
+import static constants.TestConstants.*;
+
+public class PipelinedBettingDataProcessorTests {
+
+    @Test
+    public void testResultMatchesSequentialProcessing() {
+        var random = new Random(1);
+        var matches = new MatchIndex(createRandomMatches(random, 50));
+        String input = createRandomPlayerData(random, 100, 20_000, matches.getMatches());
+
+        String expected = BettingDataFormatter.formatData(
+                new BettingDataProcessor().processBettingData(input, matches));
+
+        for (ProcessingMode mode : ProcessingMode.values()) {
+            String result = BettingDataFormatter.formatData(new PipelinedBettingDataProcessor(mode, 100, 2)
+                    .processBettingData(new StringReader(input), matches));
+
+            assertEquals(expected, result);
+        }
+    }
+
+    @Test
+    public void testProcessesFile(@TempDir Path dir) throws IOException {
+        var random = new Random(2);
+        var matches = new MatchIndex(createRandomMatches(random, 10));
+        String input = createRandomPlayerData(random, 20, 2_000, matches.getMatches());
+
+        Path file = Files.writeString(dir.resolve("player_data.txt"), input);
+
+        String expected = BettingDataFormatter.formatData(
+                new BettingDataProcessor().processBettingData(input, matches));
+        String result = BettingDataFormatter.formatData(
+                new PipelinedBettingDataProcessor(ProcessingMode.SUMMARY, 64, 1)
+                        .processBettingData(file, matches));
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void testThrowsExceptionWhenParsingFails() {
+        String deposit = "%s,DEPOSIT,,10,".formatted(PLAYER1_ID);
+        String invalid = "%s,INVALID,,1000,".formatted(PLAYER1_ID);
+        String input = String.join("\n", deposit, invalid, deposit);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new PipelinedBettingDataProcessor(ProcessingMode.FULL, 1, 1)
+                        .processBettingData(new StringReader(input), new MatchIndex()));
+    }
+
+    @Test
+    public void testStopsStagesWhenParsingFailsWithFullQueue() throws InterruptedException {
+        String deposit = "%s,DEPOSIT,,10,".formatted(PLAYER1_ID);
+        String unknownMatch = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
+        String input = String.join("\n", unknownMatch, deposit, deposit, deposit, deposit);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new PipelinedBettingDataProcessor(ProcessingMode.FULL, 2, 1)
+                        .processBettingData(new StringReader(input), new MatchIndex()));
+
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread != Thread.currentThread() && isRunningPipeline(thread)) {
+                thread.join(5000);
+
+                assertFalse(thread.isAlive(), "%s is still running".formatted(thread.getName()));
+            }
+        }
+    }
+
+    @Test
+    public void testThrowsExceptionWhenProcessingFails() {
+        Match match = createMatch(Outcome.A);
+
+        String deposit = "%s,DEPOSIT,,10,".formatted(PLAYER1_ID);
+        String bet = "%s,BET,%s,1,A".formatted(PLAYER1_ID, MATCH_ID);
+        String input = String.join("\n", deposit, bet, bet, deposit, deposit, deposit);
+
+        assertThrows(
+                IllegalArgumentException.class,
+                () -> new PipelinedBettingDataProcessor(ProcessingMode.FULL, 1, 1)
+                        .processBettingData(new StringReader(input), new MatchIndex(List.of(match))));
+    }
+
+    @Test
+    public void testThrowsExceptionWhenReadingFails() {
+        Reader reader = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                throw new IOException("Read failed");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertThrows(
+                RuntimeException.class,
+                () -> new PipelinedBettingDataProcessor().processBettingData(reader, new MatchIndex()));
+    }
+
+    private static boolean isRunningPipeline(Thread thread) {
+        return Arrays.stream(thread.getStackTrace())
+                .anyMatch(frame -> frame.getClassName().startsWith(PipelinedBettingDataProcessor.class.getName()));
+    }
+}
@@ -0,0 +1,65 @@
+import domain.ActionType;
+import domain.Player;
+import domain.PlayerAction;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static constants.TestConstants.*;
+
+public class PlayerTests {
+
+    private static final int MAX_BETS_PLACED = 2000;
+
+    @Test
+    public void testWinRateMatchesRoundedDoubleRatio() {
+        for (int betsPlaced = 1; betsPlaced <= MAX_BETS_PLACED; betsPlaced++) {
+            for (int betsWon = 0; betsWon <= betsPlaced; betsWon++) {
+                BigDecimal expected = BigDecimal
+                        .valueOf((double) betsWon / betsPlaced)
+                        .setScale(2, RoundingMode.HALF_UP);
+
+                int result = Player.calculateWinRateInHundredths(betsWon, betsPlaced);
+
+                if (expected.unscaledValue().intValueExact() != result) {
+                    fail("Win rate of %d / %d should be %s, but was %d"
+                            .formatted(betsWon, betsPlaced, expected, result));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testWinRateIsZeroWithoutBets() {
+        Player player = new Player(UUID.fromString(PLAYER1_ID));
+
+        assertEquals(0, player.getWinRateInHundredths());
+        assertEquals(new BigDecimal("0.00"), player.getWinRate());
+    }
+
+    @Test
+    public void testWinRateCountsOnlyLegalBets() {
+        Player player = new Player(UUID.fromString(PLAYER1_ID));
+
+        player.addAction(createBet(0, true, true));
+        player.addAction(createBet(1, true, false));
+        player.addAction(createBet(2, true, false));
+        player.addAction(createBet(3, false, true));
+
+        assertEquals(33, player.getWinRateInHundredths());
+        assertEquals(new BigDecimal("0.33"), player.getWinRate());
+    }
+
+    private PlayerAction createBet(int queueNr, boolean isLegal, boolean isWon) {
+        var bet = new PlayerAction(queueNr, ActionType.BET, 1);
+
+        bet.setMatchId(new UUID(0, queueNr));
+        bet.setLegalAction(isLegal);
+        bet.setBetWon(isWon);
+
+        return bet;
+    }
+}
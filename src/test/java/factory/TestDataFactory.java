@@ -1,10 +1,13 @@
 package factory;
 
+import domain.ActionType;
+import domain.BetSide;
 import domain.Match;
+import domain.Outcome;
 import domain.Player;
 import domain.PlayerAction;
 
-import java.util.UUID;
+import java.util.*;
 
 /**
  * Class for creating test data with mostly hardcoded values
@@ -12,16 +15,16 @@ import java.util.UUID;
 public class TestDataFactory {
 
     public static void addDeposit(Player player, int queueNr) {
-        var deposit = new PlayerAction(queueNr, "DEPOSIT", 2000);
+        var deposit = new PlayerAction(queueNr, ActionType.DEPOSIT, 2000);
 
         deposit.setPlayerBalanceChange(2000);
 
-        player.getPlayerActions().add(deposit);
+        player.addAction(deposit);
         player.setBalance(player.getBalance() + 2000);
     }
 
     public static void addWithdraw(Player player, boolean isLegal) {
-        var withdraw = new PlayerAction(1, "WITHDRAW", 0);
+        var withdraw = new PlayerAction(1, ActionType.WITHDRAW, 0);
 
         if (isLegal) {
             withdraw.setCoinAmount(1000);
@@ -34,11 +37,11 @@ public class TestDataFactory {
 
             player.setLegitimate(false);
         }
-        player.getPlayerActions().add(withdraw);
+        player.addAction(withdraw);
     }
 
-    public static void addBet(Player player, Match match, String betSide, boolean isLegal) {
-        var bet = new PlayerAction(1, "BET", 0);
+    public static void addBet(Player player, Match match, BetSide betSide, boolean isLegal) {
+        var bet = new PlayerAction(1, ActionType.BET, 0);
 
         bet.setMatchId(match.getId());
         bet.setBetSide(betSide);
@@ -53,15 +56,15 @@ public class TestDataFactory {
     private static void addLegalBet(Player player, PlayerAction bet, Match match) {
         bet.setCoinAmount(1);
 
-        if (!match.getOutcome().equals("DRAW")) {
-            bet.setBetWon(match.getOutcome().equals(bet.getBetSide()));
+        if (match.getOutcome() != Outcome.DRAW) {
+            bet.setBetWon(match.getOutcome() == (bet.getBetSide() == BetSide.A ? Outcome.A : Outcome.B));
 
             int balanceChange = bet.isBetWon() ? 3 : -1;
 
             bet.setPlayerBalanceChange(balanceChange);
             player.setBalance(player.getBalance() + balanceChange);
         }
-        player.getPlayerActions().add(bet);
+        player.addAction(bet);
     }
 
     private static void addIllegalBet(Player player, PlayerAction bet) {
@@ -69,10 +72,10 @@ public class TestDataFactory {
         bet.setLegalAction(false);
 
         player.setLegitimate(false);
-        player.getPlayerActions().add(bet);
+        player.addAction(bet);
     }
 
-    public static Match createMatch(String outcome) {
+    public static Match createMatch(Outcome outcome) {
         var match = new Match(UUID.fromString("abae2255-4255-4304-8589-737cdff61640"), outcome);
 
         match.setReturnRateA(3.9);
@@ -80,4 +83,56 @@ public class TestDataFactory {
 
         return match;
     }
+
+    public static List<Match> createMatches(int count) {
+        List<Match> matches = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            matches.add(new Match(new UUID(0, i), Outcome.A, 3.9, 5));
+        }
+        return matches;
+    }
+
+    public static List<Match> createRandomMatches(Random random, int count) {
+        Outcome[] outcomes = Outcome.values();
+        List<Match> matches = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            var id = new UUID(random.nextLong(), random.nextLong());
+            double returnRateA = random.nextInt(1, 500) / 100.0;
+            double returnRateB = random.nextInt(1, 500) / 100.0;
+
+            matches.add(new Match(id, outcomes[random.nextInt(outcomes.length)], returnRateA, returnRateB));
+        }
+        return matches;
+    }
+
+    /**
+     * Creates player data lines with random deposits, withdrawals and bets. Some withdrawals and bets
+     * exceed the player's balance, but no player bets on the same match twice.
+     */
+    public static String createRandomPlayerData(Random random, int playerCount, int actionCount, List<Match> matches) {
+        var builder = new StringBuilder();
+        Map<UUID, Set<UUID>> betMatchIds = new HashMap<>();
+        List<UUID> playerIds = new ArrayList<>();
+
+        for (int i = 0; i < playerCount; i++) {
+            playerIds.add(new UUID(random.nextLong(), random.nextLong()));
+        }
+        for (int i = 0; i < actionCount; i++) {
+            UUID playerId = playerIds.get(random.nextInt(playerCount));
+            Match match = matches.get(random.nextInt(matches.size()));
+            int action = random.nextInt(10);
+
+            if (action < 3 && betMatchIds.computeIfAbsent(playerId, id -> new HashSet<>()).add(match.getId())) {
+                builder.append("%s,BET,%s,%d,%s\n"
+                        .formatted(playerId, match.getId(), random.nextInt(1, 800), random.nextBoolean() ? "A" : "B"));
+            } else if (action < 6) {
+                builder.append("%s,WITHDRAW,,%d,\n".formatted(playerId, random.nextInt(1, 1500)));
+            } else {
+                builder.append("%s,DEPOSIT,,%d,\n".formatted(playerId, random.nextInt(1, 1000)));
+            }
+        }
+        return builder.toString();
+    }
 }